@@ -0,0 +1,94 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.UserCredentials;
+import com.flipkart.raghav.model.Users;
+import com.flipkart.raghav.repository.UserRepo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.cache.NullUserCache;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Covers the per-request authentication path: issuing and checking tokens and
+ * loading the principal. Run with {@code -prof gc} (the profile default) to get
+ * bytes allocated per operation next to ops/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private JWTService jwtService;
+    private MyUserDetailsService userDetailsService;
+    private String token;
+    private UserDetails userDetails;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTService();
+        token = jwtService.generateToken("benchmark-user");
+
+        userDetailsService = new MyUserDetailsService(inMemoryRepo(new Users(1, "benchmark-user", "password")),
+                new NullUserCache(), new UnknownUsernames());
+        userDetails = userDetailsService.loadUserByUsername("benchmark-user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String extractUserName() {
+        return jwtService.extractUserName(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token, userDetails);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername("benchmark-user");
+    }
+
+    /**
+     * A {@link UserRepo} backed by a map; only the lookups the services use are implemented.
+     */
+    static UserRepo inMemoryRepo(Users... users) {
+        Map<String, Users> byUsername = new HashMap<>();
+        for (Users user : users) {
+            byUsername.put(user.getUsername(), user);
+        }
+        return (UserRepo) Proxy.newProxyInstance(UserRepo.class.getClassLoader(), new Class<?>[]{UserRepo.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername" -> byUsername.get((String) args[0]);
+                    case "findCredentialsByUsername", "findCredentialsOnPrimary" -> {
+                        Users user = byUsername.get((String) args[0]);
+                        yield user == null ? null
+                                : new UserCredentials(user.getId(), user.getUsername(), user.getPassword(), user.getTokenVersion());
+                    }
+                    case "toString" -> "InMemoryUserRepo";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,48 @@
+package com.flipkart.raghav.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares verifying one of our own tokens through JJWT against the HS256 fast path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParsingBenchmark {
+
+    private JWTService jjwtService;
+    private JWTService fastPathService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        jjwtService = new JWTService(keyRing, false);
+        fastPathService = new JWTService(keyRing, true);
+        token = jjwtService.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public VerifiedToken jjwt() {
+        return jjwtService.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken fastPath() {
+        return fastPathService.verify(token);
+    }
+}
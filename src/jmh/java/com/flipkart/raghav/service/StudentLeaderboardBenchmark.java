@@ -0,0 +1,71 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-k by marks at a million students: the index walk behind
+ * {@code /students/top} against sorting the whole roster, and the cost a write
+ * pays to keep the index current.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StudentLeaderboardBenchmark {
+
+    private static final Comparator<Student> LEADERBOARD =
+            Comparator.comparingInt(Student::getMarks).reversed().thenComparingInt(Student::getId);
+
+    @Param({"1000000"})
+    public int students;
+
+    @Param({"10", "100"})
+    public int k;
+
+    private InMemoryStudentStore store;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new InMemoryStudentStore(List.of());
+        random = new SplittableRandom(42);
+        for (int id = 0; id < students; id++) {
+            store.save(new Student(id, "s" + id, random.nextInt(101)));
+        }
+    }
+
+    @Benchmark
+    public List<Student> topFromIndex() {
+        return store.top(k);
+    }
+
+    @Benchmark
+    public List<Student> topBySortingEverything() {
+        return store.findAll().stream().sorted(LEADERBOARD).limit(k).toList();
+    }
+
+    @Benchmark
+    public Student updateMarks() {
+        int id = random.nextInt(students);
+        return store.save(new Student(id, "s" + id, random.nextInt(101)));
+    }
+}
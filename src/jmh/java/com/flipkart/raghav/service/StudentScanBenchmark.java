@@ -0,0 +1,79 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-roster aggregates over the marks column of {@link ColumnarStudentStore}
+ * against the same loops over an {@code ArrayList<Student>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StudentScanBenchmark {
+
+    @Param({"1000000"})
+    public int students;
+
+    private ColumnarStudentStore columnar;
+    private List<Student> list;
+
+    @Setup
+    public void setUp() {
+        columnar = new ColumnarStudentStore(students);
+        list = new ArrayList<>(students);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int id = 0; id < students; id++) {
+            Student student = new Student(id, "student-" + random.nextInt(10_000), random.nextInt(101));
+            columnar.save(student);
+            list.add(student);
+        }
+    }
+
+    @Benchmark
+    public long sumColumnar() {
+        return columnar.sumMarks();
+    }
+
+    @Benchmark
+    public long sumObjects() {
+        long sum = 0;
+        for (Student student : list) {
+            sum += student.getMarks();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int countColumnar() {
+        return columnar.countMarksBetween(60, 80);
+    }
+
+    @Benchmark
+    public int countObjects() {
+        int count = 0;
+        for (Student student : list) {
+            int marks = student.getMarks();
+            count += (marks >= 60 & marks <= 80) ? 1 : 0;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,66 @@
+package com.flipkart.raghav.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class DataSourceConfig {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    // read-only transactions go to db.replicas.urls (same credentials and spring.datasource.hikari.* pool
+    // settings as the primary), everything else to spring.datasource.url; no replicas means everything hits the primary
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 @Value("${db.replicas.urls:}") List<String> replicaUrls,
+                                 @Value("${db.replicas.retry-after:30s}") Duration retryAfter) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(primary));
+        return routing(primary, replicas(properties, binder, replicaUrls), retryAfter);
+    }
+
+    static List<DataSource> replicas(DataSourceProperties properties, Binder binder, List<String> replicaUrls) {
+        List<String> urls = replicaUrls.stream().filter(url -> !url.isBlank()).map(String::trim).toList();
+        List<DataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(urls.get(i))
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            binder.bind(HIKARI_PREFIX, Bindable.ofInstance(replica));
+            // pool names must stay unique for metrics and JMX
+            replica.setPoolName((replica.getPoolName() == null ? "HikariPool" : replica.getPoolName()) + "-replica-" + i);
+            replicas.add(replica);
+        }
+        return replicas;
+    }
+
+    /**
+     * Connections are only fetched on first use, by which point the transaction
+     * has marked them read-only or not, so the proxy can pick the target.
+     */
+    static LazyConnectionDataSourceProxy routing(DataSource primary, List<DataSource> replicas, Duration retryAfter) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        if (!replicas.isEmpty()) {
+            routing.setReadOnlyDataSource(new ReplicaDataSource(replicas, primary, retryAfter));
+        }
+        return routing;
+    }
+}
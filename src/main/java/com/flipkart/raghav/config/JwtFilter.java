@@ -1,51 +1,103 @@
 package com.flipkart.raghav.config;
 
+import com.flipkart.raghav.model.UserPrincipal;
 import com.flipkart.raghav.service.JWTService;
 import com.flipkart.raghav.service.MyUserDetailsService;
+import com.flipkart.raghav.service.VerifiedToken;
+import com.flipkart.raghav.service.UserVersions;
+import com.flipkart.raghav.service.VerifiedTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
+/**
+ * Authenticates a request from its bearer token. The context is also saved to
+ * {@link #contextRepository()}, which the security chain loads from on every
+ * dispatch: a handler returning a {@code CompletableFuture} or a
+ * {@code StreamingResponseBody} finishes in an ASYNC dispatch that this filter
+ * skips, and that dispatch has to find the request still authenticated.
+ */
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
+    private final SecurityContextRepository contextRepository = new RequestAttributeSecurityContextRepository();
+
     @Autowired
     private JWTService jwtService;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private UserVersions userVersions;
+
     @Autowired
     ApplicationContext context;
 
+    @Value("${auth.claims-only:false}")
+    private boolean claimsOnly;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
         String username = null;
-        String token = null;
+        VerifiedToken token = null;
 
         if(authHeader != null && authHeader.startsWith("Bearer ")){
-            token = authHeader.substring(7);
-            username = jwtService.extractUserName(token);
+            token = tokenCache.getOrVerify(authHeader.substring(7), jwtService::verify);
+            username = token.subject();
         }
 
         if(username !=null && SecurityContextHolder.getContext().getAuthentication() == null){
-            UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(username);
+            UserDetails userDetails = resolvePrincipal(token);
 
-            if(jwtService.validateToken(token,userDetails)){
+            if(userDetails != null && token.isValidFor(userDetails)){
                 UsernamePasswordAuthenticationToken authenticationToken= new UsernamePasswordAuthenticationToken(userDetails,null,userDetails.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+                securityContext.setAuthentication(authenticationToken);
+                SecurityContextHolder.setContext(securityContext);
+                contextRepository.saveContext(securityContext, request, response);
             }
         }
         filterChain.doFilter(request,response);
     }
+
+    public SecurityContextRepository contextRepository() {
+        return contextRepository;
+    }
+
+    // in claims-only mode the token is trusted unless this node has seen a newer user version
+    private UserDetails resolvePrincipal(VerifiedToken token) {
+        List<String> roles = token.roles();
+        Integer version = token.userVersion();
+        if (claimsOnly && roles != null && version != null && !userVersions.isStale(token.subject(), version)) {
+            return UserPrincipal.fromClaims(token.subject(), roles, version);
+        }
+
+        UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(token.subject());
+        if (version != null && userDetails instanceof UserPrincipal principal) {
+            userVersions.record(principal.getUsername(), principal.getTokenVersion());
+            if (principal.getTokenVersion() != version) {
+                return null;
+            }
+        }
+        return userDetails;
+    }
 }
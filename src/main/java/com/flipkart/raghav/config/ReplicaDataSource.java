@@ -0,0 +1,72 @@
+package com.flipkart.raghav.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hands out connections from a set of read replicas in round-robin order. A
+ * replica that fails to connect is skipped for {@code retryAfter}; when none
+ * can be reached, the connection comes from the primary instead.
+ */
+public class ReplicaDataSource extends AbstractDataSource {
+
+    private final List<DataSource> replicas;
+    private final DataSource primary;
+    private final long retryAfterNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLongArray downUntil;
+
+    public ReplicaDataSource(List<DataSource> replicas, DataSource primary, Duration retryAfter) {
+        this.replicas = List.copyOf(replicas);
+        this.primary = primary;
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.downUntil = new AtomicLongArray(this.replicas.size());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(Connector connector) throws SQLException {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            long now = System.nanoTime();
+            long until = downUntil.get(index);
+            if (until != 0 && until - now > 0) {
+                continue;
+            }
+            try {
+                Connection connection = connector.connect(replicas.get(index));
+                downUntil.set(index, 0);
+                return connection;
+            } catch (SQLException e) {
+                logger.warn("Read replica " + index + " unavailable, skipping it for " + Duration.ofNanos(retryAfterNanos), e);
+                downUntil.set(index, now + retryAfterNanos);
+            }
+        }
+        return connector.connect(primary);
+    }
+
+    public int size() {
+        return replicas.size();
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
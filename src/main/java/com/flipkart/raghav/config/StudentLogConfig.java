@@ -0,0 +1,51 @@
+package com.flipkart.raghav.config;
+
+import com.flipkart.raghav.service.ColumnarStudentStore;
+import com.flipkart.raghav.service.InMemoryStudentStore;
+import com.flipkart.raghav.service.LoggedStudentStore;
+import com.flipkart.raghav.service.OffHeapStudentStore;
+import com.flipkart.raghav.service.StudentLog;
+import com.flipkart.raghav.service.StudentStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(name = "students.wal.dir")
+public class StudentLogConfig {
+
+    @Bean(destroyMethod = "close")
+    public StudentLog studentLog(@Value("${students.wal.dir}") String dir,
+                                 @Value("${students.wal.snapshot-every:1000000}") long snapshotEvery) {
+        return new StudentLog(Path.of(dir), snapshotEvery);
+    }
+
+    // memory, columnar and offheap stores get recovered from and written through the log;
+    // the jpa store already has the database behind it. The store itself stays a bean of its
+    // own type with its own lifecycle, and this one is what a plain StudentStore resolves to.
+    @Bean
+    @Primary
+    @ConditionalOnExpression("'${students.store:memory}' != 'jpa'")
+    public LoggedStudentStore loggedStudentStore(ObjectProvider<InMemoryStudentStore> memory,
+                                                 ObjectProvider<ColumnarStudentStore> columnar,
+                                                 ObjectProvider<OffHeapStudentStore> offHeap,
+                                                 StudentLog studentLog) {
+        StudentStore store = memory.getIfAvailable();
+        if (store == null) {
+            store = columnar.getIfAvailable();
+        }
+        if (store == null) {
+            store = offHeap.getIfAvailable();
+        }
+        if (store == null) {
+            throw new IllegalStateException("students.wal.dir needs students.store=memory, columnar or offheap");
+        }
+        return new LoggedStudentStore(store, studentLog);
+    }
+}
@@ -1,27 +1,90 @@
 package com.flipkart.raghav.controller;
 
+import com.flipkart.raghav.model.InvalidStudentRequestException;
 import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentPage;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+import com.flipkart.raghav.service.MarksHistogram;
+import com.flipkart.raghav.service.StudentExport;
+import com.flipkart.raghav.service.StudentStore;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 public class StudentController {
-    public List<Student> students = new ArrayList<>(Arrays.asList(
-            new Student(1,"Navin",60),
-            new Student(2,"Kiran",70)
-    ));
 
+    @Autowired
+    private StudentStore studentStore;
+
+    @Autowired
+    private StudentExport studentExport;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // keyset paged: follow nextAfterId until it is null; without afterId the first page starts at the lowest id, negative ones included
     @GetMapping("/students")
-    public List<Student> getAllStudents(){
-        return students;
+    public StudentPage getAllStudents(@RequestParam(required = false) Integer afterId,
+                                      @RequestParam(defaultValue = "100") int limit){
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return StudentPage.of(studentStore.findPage(afterId == null ? Integer.MIN_VALUE : afterId, size), size);
+    }
+    // whole table as NDJSON, with Accept: application/x-ndjson or ?stream=true
+    @GetMapping(value = "/students", produces = StudentExport.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamStudents(){
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(StudentExport.NDJSON))
+                .body(studentExport::writeNdjson);
+    }
+    @GetMapping(value = "/students", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamStudentsByFlag(){
+        return streamStudents();
+    }
+    // e.g. /students/search?minMarks=60&namePrefix=Ki&sort=marks&order=desc&limit=10
+    @GetMapping("/students/search")
+    public List<Student> searchStudents(@RequestParam(required = false) Integer minMarks,
+                                        @RequestParam(required = false) Integer maxMarks,
+                                        @RequestParam(required = false) String namePrefix,
+                                        @RequestParam(defaultValue = "id") String sort,
+                                        @RequestParam(defaultValue = "asc") String order,
+                                        @RequestParam(defaultValue = "100") int limit){
+        StudentQuery.SortField sortBy = StudentQuery.SortField.parse(sort);
+        boolean descending = switch (order.toLowerCase(Locale.ROOT)) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new InvalidStudentRequestException("order must be asc or desc");
+        };
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return studentStore.query(new StudentQuery(minMarks, maxMarks, namePrefix, sortBy, descending, size));
+    }
+    // leaderboard: highest marks first, lower id first on a tie
+    @GetMapping("/students/top")
+    public List<Student> getTopStudents(@RequestParam(defaultValue = "10") int k){
+        return studentStore.top(Math.max(1, Math.min(k, MAX_PAGE_SIZE)));
+    }
+    // e.g. /students/stats?percentiles=50,75,99
+    @GetMapping("/students/stats")
+    public StudentStats getStats(@RequestParam(required = false) double[] percentiles){
+        return studentStore.stats(percentiles == null ? MarksHistogram.DEFAULT_PERCENTILES : percentiles);
+    }
+    @GetMapping("/students/{id}")
+    public ResponseEntity<Student> getStudent(@PathVariable int id){
+        Student student = studentStore.findById(id);
+        return student == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(student);
     }
     @GetMapping("/csrf-token")
     public CsrfToken getCsrfToken(HttpServletRequest httpServletRequest){
@@ -30,8 +93,17 @@ public class StudentController {
 
     @PostMapping("/students")
     public Student addStudent(@RequestBody Student student){
-        students.add(student);
-        return student;
+        return studentStore.save(student);
+    }
+
+    @PostMapping("/students/batch")
+    public List<Student> addStudents(@RequestBody List<Student> students){
+        return studentStore.saveAll(students);
+    }
+
+    @ExceptionHandler(InvalidStudentRequestException.class)
+    public ResponseEntity<String> badQuery(InvalidStudentRequestException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
     }
 
 }
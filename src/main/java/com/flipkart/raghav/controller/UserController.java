@@ -1,22 +1,82 @@
 package com.flipkart.raghav.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.flipkart.raghav.model.PasswordChange;
 import com.flipkart.raghav.model.Users;
+import com.flipkart.raghav.service.BulkRegistrationResult;
+import com.flipkart.raghav.service.BulkRegistrationService;
+import com.flipkart.raghav.service.PasswordHashingExecutor;
+import com.flipkart.raghav.service.PasswordHashingRejectedException;
 import com.flipkart.raghav.service.UserService;
+import com.flipkart.raghav.service.UsernameTakenException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.security.Principal;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 public class UserController {
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Autowired
+    private BulkRegistrationService bulkRegistrationService;
+
     @PostMapping("/register")
-    public Users register(@RequestBody Users user){
-        return userService.register(user);
+    public CompletableFuture<Users> register(@RequestBody Users user){
+        return hashingExecutor.submit(() -> userService.register(user));
+    }
+    // body is a JSON array of users, read as a stream rather than bound up front
+    @PostMapping("/register/bulk")
+    public BulkRegistrationResult registerBulk(HttpServletRequest request) throws IOException {
+        return bulkRegistrationService.register(request.getInputStream());
+    }
+    @PutMapping("/password")
+    public CompletableFuture<ResponseEntity<String>> changePassword(@RequestBody PasswordChange change, Principal principal){
+        if (change.newPassword() == null || change.newPassword().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("New password is required"));
+        }
+        String username = principal.getName();
+        return hashingExecutor.submit(() -> {
+            userService.changePassword(username, change);
+            return ResponseEntity.noContent().build();
+        });
     }
     @PostMapping("/login")
-    public String login(@RequestBody Users user){
-        return userService.verify(user);
+    public CompletableFuture<String> login(@RequestBody Users user){
+        return hashingExecutor.submit(() -> userService.verify(user));
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> hashingRejected(PasswordHashingRejectedException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(UsernameTakenException.class)
+    public ResponseEntity<String> usernameTaken(UsernameTakenException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<String> wrongPassword(BadCredentialsException e){
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+    }
+
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<String> badBulkPayload(JsonProcessingException e){
+        return ResponseEntity.badRequest().body(e.getMessage());
     }
 }
@@ -0,0 +1,12 @@
+package com.flipkart.raghav.model;
+
+/**
+ * A student search, stats request or record the client got wrong. The message
+ * is written for the client and is returned as the 400 body.
+ */
+public class InvalidStudentRequestException extends IllegalArgumentException {
+
+    public InvalidStudentRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.flipkart.raghav.model;
+
+/**
+ * Body of {@code PUT /password}: the caller proves the current password before
+ * it is replaced.
+ */
+public record PasswordChange(String currentPassword, String newPassword) {
+}
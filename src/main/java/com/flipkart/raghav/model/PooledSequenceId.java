@@ -0,0 +1,21 @@
+package com.flipkart.raghav.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates ids from a database sequence, handing out
+ * {@code raghav.id.increment-size} ids per sequence call. See
+ * {@link PooledSequenceIdGenerator}.
+ */
+@IdGeneratorType(PooledSequenceIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequenceId {
+
+    String sequence();
+}
@@ -0,0 +1,39 @@
+package com.flipkart.raghav.model;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator using the pooled-lo optimizer: each {@code nextval}
+ * returns the first id of a block of {@code raghav.id.increment-size} ids
+ * (default 50), so inserts only hit the sequence once per block and can be
+ * batched. The sequence must be created with the same {@code increment by}.
+ */
+public class PooledSequenceIdGenerator extends SequenceStyleGenerator {
+
+    public static final String INCREMENT_SIZE_SETTING = "raghav.id.increment-size";
+    public static final int DEFAULT_INCREMENT_SIZE = 50;
+
+    private final String sequenceName;
+
+    public PooledSequenceIdGenerator(PooledSequenceId config) {
+        this.sequenceName = config.sequence();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        int incrementSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(INCREMENT_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_INCREMENT_SIZE);
+        parameters.setProperty(SEQUENCE_PARAM, sequenceName);
+        parameters.setProperty(INITIAL_PARAM, "1");
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(incrementSize));
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
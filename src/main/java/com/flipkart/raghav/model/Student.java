@@ -1,5 +1,9 @@
 package com.flipkart.raghav.model;
 
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,7 +11,17 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Entity
+@Table(indexes = {
+        // range scans and ordering for /students/search
+        @Index(name = "ix_student_marks_id", columnList = "marks, id"),
+        @Index(name = "ix_student_name_id", columnList = "name, id"),
+        // /students/top reads marks descending but ids ascending, which neither direction of (marks, id) gives
+        @Index(name = "ix_student_top", columnList = "marks DESC, id")
+})
 public class Student {
+    // assigned by the client, students have stable ids of their own
+    @Id
     private int id;
     private String name;
     private int marks;
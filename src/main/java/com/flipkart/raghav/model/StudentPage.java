@@ -0,0 +1,15 @@
+package com.flipkart.raghav.model;
+
+import java.util.List;
+
+/**
+ * One keyset page of students ordered by id. Pass {@code nextAfterId} back as
+ * {@code afterId} to get the following page; it is {@code null} on the last one.
+ */
+public record StudentPage(List<Student> students, Integer nextAfterId) {
+
+    public static StudentPage of(List<Student> students, int limit) {
+        Integer next = students.size() < limit ? null : students.get(students.size() - 1).getId();
+        return new StudentPage(students, next);
+    }
+}
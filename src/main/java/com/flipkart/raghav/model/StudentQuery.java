@@ -0,0 +1,69 @@
+package com.flipkart.raghav.model;
+
+import java.util.Comparator;
+
+/**
+ * Filter and ordering for a student search. Null bounds and a null or empty
+ * prefix mean "no filter"; ties on the sort field are broken by id in the same
+ * direction, so results are deterministic.
+ */
+public record StudentQuery(Integer minMarks, Integer maxMarks, String namePrefix,
+                           SortField sortBy, boolean descending, int limit) {
+
+    public enum SortField {
+        ID, MARKS, NAME;
+
+        public static SortField parse(String name) {
+            for (SortField field : values()) {
+                if (field.name().equalsIgnoreCase(name)) {
+                    return field;
+                }
+            }
+            throw new InvalidStudentRequestException("sort must be one of id, marks, name");
+        }
+    }
+
+    public StudentQuery {
+        if (namePrefix != null && namePrefix.isEmpty()) {
+            namePrefix = null;
+        }
+        if (sortBy == null) {
+            sortBy = SortField.ID;
+        }
+        if (limit < 1) {
+            throw new InvalidStudentRequestException("limit must be positive");
+        }
+        if (minMarks != null && maxMarks != null && minMarks > maxMarks) {
+            throw new InvalidStudentRequestException("minMarks must not exceed maxMarks");
+        }
+    }
+
+    public boolean filtersMarks() {
+        return minMarks != null || maxMarks != null;
+    }
+
+    public boolean filtersName() {
+        return namePrefix != null;
+    }
+
+    /** The result order, for stores that have to sort matches themselves. */
+    public Comparator<Student> comparator() {
+        Comparator<Student> order = switch (sortBy) {
+            case ID -> Comparator.comparingInt(Student::getId);
+            case MARKS -> Comparator.comparingInt(Student::getMarks).thenComparingInt(Student::getId);
+            case NAME -> Comparator.comparing(Student::getName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                    .thenComparingInt(Student::getId);
+        };
+        return descending ? order.reversed() : order;
+    }
+
+    public boolean matches(Student student) {
+        if (minMarks != null && student.getMarks() < minMarks) {
+            return false;
+        }
+        if (maxMarks != null && student.getMarks() > maxMarks) {
+            return false;
+        }
+        return namePrefix == null || (student.getName() != null && student.getName().startsWith(namePrefix));
+    }
+}
@@ -0,0 +1,12 @@
+package com.flipkart.raghav.model;
+
+import java.util.Map;
+
+/**
+ * Marks statistics at one instant. {@code mean}, {@code min} and {@code max}
+ * are {@code null} when there are no students; percentiles are nearest-rank
+ * and keyed like {@code "p90"}.
+ */
+public record StudentStats(long count, long sum, Double mean, Integer min, Integer max,
+                           Map<String, Integer> percentiles) {
+}
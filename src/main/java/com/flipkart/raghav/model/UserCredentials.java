@@ -0,0 +1,8 @@
+package com.flipkart.raghav.model;
+
+/**
+ * What authentication needs from a {@link Users} row, read as a projection so
+ * no managed entity is created per lookup.
+ */
+public record UserCredentials(int id, String username, String password, int tokenVersion) {
+}
@@ -10,13 +10,39 @@ import java.util.List;
 
 public class UserPrincipal implements UserDetails {
     private Users user;
+    private Collection<? extends GrantedAuthority> authorities;
+
     public UserPrincipal(Users user) {
+        this(user, Collections.singleton(new SimpleGrantedAuthority("USER")));
+    }
+
+    public UserPrincipal(UserCredentials credentials) {
+        this(new Users(credentials.id(), credentials.username(), credentials.password(), credentials.tokenVersion()));
+    }
+
+    public UserPrincipal(Users user, Collection<? extends GrantedAuthority> authorities) {
         this.user = user;
+        this.authorities = authorities;
+    }
+
+    // principal rebuilt from token claims alone, without a password
+    public static UserPrincipal fromClaims(String username, List<String> roles, int tokenVersion) {
+        Users user = new Users(0, username, null, tokenVersion);
+        return new UserPrincipal(user, roles.stream().map(SimpleGrantedAuthority::new).toList());
+    }
+
+    public UserPrincipal withPassword(String password) {
+        Users copy = new Users(user.getId(), user.getUsername(), password, user.getTokenVersion());
+        return new UserPrincipal(copy, authorities);
+    }
+
+    public int getTokenVersion() {
+        return user.getTokenVersion();
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.singleton(new SimpleGrantedAuthority("USER")) ;
+        return authorities;
     }
 
     @Override
@@ -1,18 +1,40 @@
 package com.flipkart.raghav.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
+@Table(indexes = @Index(name = "ux_users_username", columnList = "username", unique = true))
 public class Users {
     @Id
+    @PooledSequenceId(sequence = "users_seq")
     private int id;
+    @NaturalId
     private String username;
     private String password;
+
+    // bumped whenever credentials change so tokens issued before can be recognised as stale
+    @ColumnDefault("0")
+    private int tokenVersion;
+
+    public Users(int id, String username, String password) {
+        this(id, username, password, 0);
+    }
 }
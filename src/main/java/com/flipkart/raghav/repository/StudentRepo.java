@@ -0,0 +1,27 @@
+package com.flipkart.raghav.repository;
+
+import com.flipkart.raghav.model.Student;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StudentRepo extends JpaRepository<Student, Integer>, JpaSpecificationExecutor<Student> {
+
+    // keyset page: uses the primary key index instead of an offset scan
+    List<Student> findByIdGreaterThanOrderByIdAsc(int afterId, Limit limit);
+
+    // select ... for update: the previous marks of a row being overwritten must not change under the writer
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Student s where s.id in :ids")
+    List<Student> findAllByIdForUpdate(Collection<Integer> ids);
+
+    // one row per distinct mark: {marks, count}
+    @Query("select s.marks, count(s) from Student s group by s.marks")
+    List<Object[]> countByMarks();
+}
@@ -2,8 +2,19 @@ package com.flipkart.raghav.repository;
 
 import com.flipkart.raghav.model.Users;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface UserRepo extends JpaRepository<Users, Integer> {
+import java.util.List;
 
-    Users findByUsername(String username);
+public interface UserRepo extends JpaRepository<Users, Integer>, UserRepoCustom {
+
+    @Query("select u.username from Users u")
+    List<String> findAllUsernames();
+
+    @Transactional
+    @Modifying
+    @Query("update Users u set u.password = :password where u.username = :username")
+    int updatePassword(String username, String password);
 }
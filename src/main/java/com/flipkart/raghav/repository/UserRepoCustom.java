@@ -0,0 +1,19 @@
+package com.flipkart.raghav.repository;
+
+import com.flipkart.raghav.model.UserCredentials;
+import com.flipkart.raghav.model.Users;
+
+/**
+ * Username lookups served from the second-level cache when possible: entities
+ * through Hibernate's natural-id API, credentials through a cached projection
+ * query so authentication never materializes a {@link Users} entity.
+ */
+public interface UserRepoCustom {
+
+    Users findByUsername(String username);
+
+    UserCredentials findCredentialsByUsername(String username);
+
+    /** The same lookup, always against the primary and never cached, to confirm a miss. */
+    UserCredentials findCredentialsOnPrimary(String username);
+}
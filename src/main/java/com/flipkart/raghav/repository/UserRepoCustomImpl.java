@@ -0,0 +1,63 @@
+package com.flipkart.raghav.repository;
+
+import com.flipkart.raghav.model.UserCredentials;
+import com.flipkart.raghav.model.Users;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Transactional(readOnly = true)
+class UserRepoCustomImpl implements UserRepoCustom {
+
+    static final String CREDENTIALS_REGION = "user-credentials";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Users findByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Users.class).load(username);
+    }
+
+    // the projection's row is cached as plain values, so a hit builds the record without creating a Users entity;
+    // any write to the users table invalidates it
+    @Override
+    public UserCredentials findCredentialsByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        return first(credentialsQuery(username)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, CREDENTIALS_REGION));
+    }
+
+    // a read-write transaction so it runs on the primary, and uncached, so a miss is current
+    @Override
+    @Transactional
+    public UserCredentials findCredentialsOnPrimary(String username) {
+        if (username == null) {
+            return null;
+        }
+        return first(credentialsQuery(username));
+    }
+
+    private TypedQuery<UserCredentials> credentialsQuery(String username) {
+        return entityManager.createQuery("select new com.flipkart.raghav.model.UserCredentials("
+                        + "u.id, u.username, u.password, u.tokenVersion) from Users u where u.username = :username",
+                        UserCredentials.class)
+                .setParameter("username", username);
+    }
+
+    private static UserCredentials first(TypedQuery<UserCredentials> query) {
+        List<UserCredentials> found = query.getResultList();
+        return found.isEmpty() ? null : found.get(0);
+    }
+}
@@ -0,0 +1,96 @@
+package com.flipkart.raghav.service;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the {@code {id}}-prefixed {@link DelegatingPasswordEncoder} used for
+ * every password: {@code bcrypt}, {@code argon2} and {@code pbkdf2}, with new
+ * hashes written by the configured default. Legacy hashes without a prefix are
+ * matched as BCrypt.
+ *
+ * <p>Given a target latency, the default BCrypt cost or Argon2 iteration count
+ * is calibrated on this machine so one hash takes about that long. Both encode
+ * their parameters in the hash, so older hashes keep matching and
+ * {@link PasswordEncoder#upgradeEncoding} flags them for rehashing. PBKDF2 does
+ * not, so its iteration count is never calibrated.
+ */
+public final class AdaptivePasswordEncoders {
+
+    static final int MIN_BCRYPT_STRENGTH = 10;
+    static final int MAX_BCRYPT_STRENGTH = 20;
+    static final int DEFAULT_BCRYPT_STRENGTH = 12;
+    static final int MIN_ARGON2_ITERATIONS = 2;
+    static final int MAX_ARGON2_ITERATIONS = 64;
+
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+    private static final int ARGON2_MEMORY_KB = 1 << 14;
+
+    private AdaptivePasswordEncoders() {
+    }
+
+    /**
+     * @param defaultId     id used for new hashes
+     * @param targetLatency desired time for one hash, or {@code null} to use fixed defaults
+     */
+    public static DelegatingPasswordEncoder create(String defaultId, Duration targetLatency) {
+        int bcryptStrength = DEFAULT_BCRYPT_STRENGTH;
+        int argon2Iterations = MIN_ARGON2_ITERATIONS;
+        if (targetLatency != null && "bcrypt".equals(defaultId)) {
+            bcryptStrength = bcryptStrength(targetLatency, measure(new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH)));
+        } else if (targetLatency != null && "argon2".equals(defaultId)) {
+            argon2Iterations = argon2Iterations(targetLatency, measure(argon2(MIN_ARGON2_ITERATIONS)));
+        }
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("argon2", argon2(argon2Iterations));
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(defaultId)) {
+            throw new IllegalArgumentException("Unknown password encoder id: " + defaultId);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(defaultId, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return delegating;
+    }
+
+    /** BCrypt doubles its work per cost step, so step up from the cost-10 timing. */
+    static int bcryptStrength(Duration target, Duration atMinimum) {
+        double ratio = (double) target.toNanos() / Math.max(atMinimum.toNanos(), 1);
+        int steps = ratio < 1 ? 0 : (int) Math.floor(Math.log(ratio) / Math.log(2));
+        return Math.min(MIN_BCRYPT_STRENGTH + steps, MAX_BCRYPT_STRENGTH);
+    }
+
+    /** Argon2 time grows linearly with iterations at a fixed memory cost. */
+    static int argon2Iterations(Duration target, Duration atMinimum) {
+        double ratio = (double) target.toNanos() / Math.max(atMinimum.toNanos(), 1);
+        int iterations = (int) Math.floor(MIN_ARGON2_ITERATIONS * ratio);
+        return Math.max(MIN_ARGON2_ITERATIONS, Math.min(iterations, MAX_ARGON2_ITERATIONS));
+    }
+
+    private static Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM,
+                ARGON2_MEMORY_KB, iterations);
+    }
+
+    /** Fastest of a few runs after one warm-up, to keep JIT and noise out of it. */
+    private static Duration measure(PasswordEncoder encoder) {
+        encoder.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Duration.ofNanos(best);
+    }
+}
@@ -0,0 +1,15 @@
+package com.flipkart.raghav.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk registration: totals plus one entry per rejected row, in
+ * submission order. Rows that were created are only counted.
+ */
+public record BulkRegistrationResult(int created, int failed, List<Row> failures) {
+
+    public enum Status { INVALID, FAILED }
+
+    public record Row(int index, String username, Status status, String error) {
+    }
+}
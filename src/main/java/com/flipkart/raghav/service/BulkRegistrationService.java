@@ -0,0 +1,177 @@
+package com.flipkart.raghav.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flipkart.raghav.model.Users;
+import com.flipkart.raghav.repository.UserRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Imports users from a JSON array without holding the whole payload in memory:
+ * rows are read in chunks of {@code auth.bulk-register.chunk-size}, their
+ * passwords hashed on the shared {@link PasswordHashingExecutor} with at most
+ * {@code auth.bulk-register.threads} in flight (the executor's pool size by
+ * default), and each chunk saved in its own transaction, which Hibernate flushes
+ * as JDBC batches of {@code hibernate.jdbc.batch_size} with ids drawn from
+ * {@code users_seq} in blocks. When the hashing queue is full, the importing
+ * thread hashes the row itself, so a large import slows down instead of
+ * starving logins or growing a queue.
+ *
+ * <p>If a chunk fails, it is rolled back and retried row by row so the result
+ * can say which rows were rejected; earlier chunks stay committed. Only the
+ * rejected rows are listed, so the response stays small however large the
+ * import. Existing usernames are rejected by the unique constraint on
+ * {@code users.username} and ids in the payload are ignored.
+ */
+@Service
+public class BulkRegistrationService {
+
+    private final ObjectMapper objectMapper;
+    private final UserRepo userRepo;
+    private final PlatformTransactionManager transactionManager;
+    private final PasswordEncoder encoder;
+    private final UnknownUsernames unknownUsernames;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final int chunkSize;
+    private final int maxInFlight;
+
+    public BulkRegistrationService(ObjectMapper objectMapper, UserRepo userRepo,
+                                   PlatformTransactionManager transactionManager, PasswordEncoder encoder,
+                                   UnknownUsernames unknownUsernames, PasswordHashingExecutor hashingExecutor,
+                                   @Value("${auth.bulk-register.chunk-size:1000}") int chunkSize,
+                                   @Value("${auth.bulk-register.threads:0}") int threads) {
+        this.objectMapper = objectMapper;
+        this.userRepo = userRepo;
+        this.transactionManager = transactionManager;
+        this.encoder = encoder;
+        this.unknownUsernames = unknownUsernames;
+        this.hashingExecutor = hashingExecutor;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.maxInFlight = threads > 0 ? threads : hashingExecutor.poolSize();
+    }
+
+    public BulkRegistrationResult register(InputStream json) throws IOException {
+        List<BulkRegistrationResult.Row> failures = new ArrayList<>();
+        int submitted = 0;
+        int created = 0;
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of users");
+            }
+            List<Users> chunk = new ArrayList<>(chunkSize);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                chunk.add(objectMapper.readValue(parser, Users.class));
+                if (chunk.size() == chunkSize) {
+                    created += registerChunk(chunk, submitted, failures);
+                    submitted += chunk.size();
+                    chunk.clear();
+                }
+            }
+            created += registerChunk(chunk, submitted, failures);
+            submitted += chunk.size();
+        }
+        return new BulkRegistrationResult(created, submitted - created, failures);
+    }
+
+    // returns the number of rows saved; rejected rows are appended to failures in submission order
+    int registerChunk(List<Users> chunk, int firstIndex, List<BulkRegistrationResult.Row> failures) {
+        BulkRegistrationResult.Row[] rejected = new BulkRegistrationResult.Row[chunk.size()];
+        List<CompletableFuture<Users>> hashing = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Users user = chunk.get(i);
+            String invalid = validate(user);
+            if (invalid != null) {
+                rejected[i] = new BulkRegistrationResult.Row(firstIndex + i, user == null ? null : user.getUsername(),
+                        BulkRegistrationResult.Status.INVALID, invalid);
+                continue;
+            }
+            if (hashing.size() >= maxInFlight) {
+                hashing.get(hashing.size() - maxInFlight).join();
+            }
+            hashing.add(hash(user));
+            positions.add(i);
+        }
+        List<Users> batch = hashing.stream().map(CompletableFuture::join).toList();
+
+        int created = 0;
+        if (!batch.isEmpty()) {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            try {
+                transaction.executeWithoutResult(status -> userRepo.saveAllAndFlush(batch));
+                batch.forEach(this::created);
+                created = batch.size();
+            } catch (DataAccessException batchFailure) {
+                for (int b = 0; b < batch.size(); b++) {
+                    BulkRegistrationResult.Row failure = saveOne(transaction, firstIndex + positions.get(b), batch.get(b));
+                    if (failure == null) {
+                        created++;
+                    } else {
+                        rejected[positions.get(b)] = failure;
+                    }
+                }
+            }
+        }
+        for (BulkRegistrationResult.Row row : rejected) {
+            if (row != null) {
+                failures.add(row);
+            }
+        }
+        return created;
+    }
+
+    private CompletableFuture<Users> hash(Users user) {
+        try {
+            return hashingExecutor.submit(() -> hashed(user));
+        } catch (PasswordHashingRejectedException e) {
+            return CompletableFuture.completedFuture(hashed(user));
+        }
+    }
+
+    private Users hashed(Users user) {
+        return new Users(0, user.getUsername(), encoder.encode(user.getPassword()));
+    }
+
+    private BulkRegistrationResult.Row saveOne(TransactionTemplate transaction, int index, Users user) {
+        try {
+            // the failed batch may have assigned an id already
+            user.setId(0);
+            transaction.executeWithoutResult(status -> userRepo.saveAndFlush(user));
+            created(user);
+            return null;
+        } catch (DataAccessException e) {
+            return new BulkRegistrationResult.Row(index, user.getUsername(), BulkRegistrationResult.Status.FAILED,
+                    e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void created(Users user) {
+        unknownUsernames.recordRegistered(user.getUsername());
+    }
+
+    private static String validate(Users user) {
+        if (user == null) {
+            return "Missing user";
+        }
+        if (user.getUsername() == null || user.getUsername().isBlank()) {
+            return "Username is required";
+        }
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return "Password is required";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,579 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link StudentStore} that keeps students as columns instead of objects:
+ * parallel {@code int[]} arrays for id, marks and name code, with each distinct
+ * name stored once as UTF-8 in a byte arena. A student costs about 12 bytes of
+ * columns plus 8 of id index, against roughly 80 for a {@link Student} and its
+ * {@link String} in a list, and the heap holds a handful of large arrays rather
+ * than millions of small objects. Selected with {@code students.store=columnar}.
+ *
+ * <p>Names are reference counted: the last row to drop a name frees its code,
+ * and the arena is repacked once freed bytes outweigh live ones, so renames do
+ * not grow it without bound. Writes also keep the live names in sorted order,
+ * which costs O(distinct names) of array shifting when a name first appears or
+ * last disappears and nothing on reads.
+ *
+ * <p>Rows are appended and updated in place, never moved. Keyset paging reads
+ * a permutation of rows sorted by id, which stays valid while ids arrive in
+ * increasing order and is rebuilt on the next ordered read otherwise. Filters
+ * and aggregates are branch-free loops over the primitive columns, which C2
+ * compiles to SIMD code. Readers share a read lock and writers take the write
+ * lock.
+ */
+@Component
+@ConditionalOnProperty(name = "students.store", havingValue = "columnar")
+public class ColumnarStudentStore implements StudentStore {
+
+    private static final int NO_NAME = -1;
+    /** Rows compacted per pass of a range scan, bounding its scratch space. */
+    private static final int SCAN_BLOCK = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock read = lock.readLock();
+    private final Lock write = lock.writeLock();
+
+    // columns, indexed by row
+    private int[] ids;
+    private int[] marks;
+    private int[] nameCodes;
+    private int rows;
+
+    // id -> row + 1 (0 is empty), open addressing; the key is read back from ids
+    private int[] idTable;
+
+    // rows in id order while `sorted`, rebuilt lazily once an id arrives out of order;
+    // null while every row was appended in id order, as row order is then id order
+    private int[] byId;
+    private boolean sorted = true;
+
+    // name dictionary: code -> [nameStart[code], + nameLength[code]) in nameBytes,
+    // held by nameRefs[code] rows; codes whose last row let go wait in freeNames
+    private byte[] nameBytes = new byte[1024];
+    private int nameBytesUsed;
+    private int deadNameBytes;
+    private int[] nameStart = new int[64];
+    private int[] nameLength = new int[64];
+    private int[] nameHashes = new int[64];
+    private int[] nameRefs = new int[64];
+    private int nameCodesIssued;
+    private int[] freeNames = new int[64];
+    private int freeNameCount;
+    private int names;
+    private int[] nameTable = new int[128];
+
+    // live name codes in name order, and each code's position in it
+    private int[] byName = new int[64];
+    private int[] nameRank = new int[64];
+
+    private final MarksHistogram histogram = new MarksHistogram();
+
+    public ColumnarStudentStore(@Value("${students.columnar.initial-capacity:1024}") int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        ids = new int[capacity];
+        marks = new int[capacity];
+        nameCodes = new int[capacity];
+        idTable = new int[tableSize(capacity)];
+    }
+
+    @Override
+    public Student save(Student student) {
+        write.lock();
+        try {
+            put(student);
+        } finally {
+            write.unlock();
+        }
+        return copy(student);
+    }
+
+    @Override
+    public List<Student> saveAll(List<Student> students) {
+        List<Student> saved = new ArrayList<>(students.size());
+        write.lock();
+        try {
+            for (Student student : students) {
+                put(student);
+                saved.add(copy(student));
+            }
+        } finally {
+            write.unlock();
+        }
+        return saved;
+    }
+
+    @Override
+    public Student findById(int id) {
+        read.lock();
+        try {
+            int row = rowOf(id);
+            return row < 0 ? null : student(row);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public List<Student> findPage(int afterId, int limit) {
+        lockSorted();
+        try {
+            // first position in id order whose id is greater than afterId
+            int low = 0;
+            int high = rows;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ids[rowAt(mid)] <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int end = (int) Math.min((long) low + limit, rows);
+            List<Student> page = new ArrayList<>(end - low);
+            for (int i = low; i < end; i++) {
+                page.add(student(rowAt(i)));
+            }
+            return page;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Scans the marks column for the range a block of rows at a time, keeping
+     * the {@code limit} best (sort key, id) pairs in a bounded heap. A name
+     * prefix becomes the range of positions in the name order whose names start
+     * with it, found by binary search, and a name sort compares those positions,
+     * so a query allocates O(limit) whatever the roster or dictionary size.
+     */
+    @Override
+    public List<Student> query(StudentQuery query) {
+        read.lock();
+        try {
+            int min = query.minMarks() == null ? Integer.MIN_VALUE : query.minMarks();
+            int max = query.maxMarks() == null ? Integer.MAX_VALUE : query.maxMarks();
+            boolean filtersName = query.filtersName();
+            int fromRank = filtersName ? namePosition(query.namePrefix(), false) : 0;
+            int toRank = filtersName ? namePosition(query.namePrefix(), true) : 0;
+            if (filtersName && fromRank == toRank) {
+                return List.of();
+            }
+
+            SortKeys.Smallest best = new SortKeys.Smallest(Math.min(query.limit(), rows));
+            int[] matching = new int[Math.min(rows, SCAN_BLOCK)];
+            int[] m = marks;
+            for (int from = 0; from < rows; from += SCAN_BLOCK) {
+                int to = Math.min(from + SCAN_BLOCK, rows);
+                // branch-free compaction of the rows in range, which the JIT can vectorize
+                int count = 0;
+                for (int row = from; row < to; row++) {
+                    long v = m[row];
+                    matching[count] = row;
+                    count += (int) (((v - min) | (max - v)) >>> 63) ^ 1;
+                }
+                for (int i = 0; i < count; i++) {
+                    int row = matching[i];
+                    int code = nameCodes[row];
+                    if (filtersName && (code == NO_NAME || nameRank[code] < fromRank || nameRank[code] >= toRank)) {
+                        continue;
+                    }
+                    int sortValue = switch (query.sortBy()) {
+                        case ID -> 0;
+                        case MARKS -> marks[row];
+                        case NAME -> code == NO_NAME ? Integer.MIN_VALUE : nameRank[code];
+                    };
+                    long key = SortKeys.of(sortValue, ids[row]);
+                    best.offer(query.descending() ? ~key : key);
+                }
+            }
+            return students(best.sorted(), query.descending());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public List<Student> top(int k) {
+        read.lock();
+        try {
+            SortKeys.Smallest best = new SortKeys.Smallest(Math.min(k, rows));
+            for (int row = 0; row < rows; row++) {
+                // ~marks sorts the highest marks first, then the lower id
+                best.offer(SortKeys.of(~marks[row], ids[row]));
+            }
+            return students(best.sorted(), false);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public StudentStats stats(double... percentiles) {
+        return histogram.snapshot(percentiles);
+    }
+
+    /** Sum of every student's marks, scanned straight off the column. */
+    public long sumMarks() {
+        read.lock();
+        try {
+            long sum = 0;
+            int[] m = marks;
+            for (int row = 0; row < rows; row++) {
+                sum += m[row];
+            }
+            return sum;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /** How many students have marks in {@code [min, max]}, without branching per row. */
+    public int countMarksBetween(int min, int max) {
+        read.lock();
+        try {
+            int count = 0;
+            int[] m = marks;
+            for (int row = 0; row < rows; row++) {
+                long v = m[row];
+                // sign bit set when v is out of range; long math so extreme bounds cannot overflow
+                count += (int) (((v - min) | (max - v)) >>> 63) ^ 1;
+            }
+            return count;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /** Distinct names currently held by at least one student. */
+    int distinctNames() {
+        read.lock();
+        try {
+            return names;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /** Bytes allocated for the name arena, live and freed. */
+    int nameArenaCapacity() {
+        read.lock();
+        try {
+            return nameBytes.length;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        read.lock();
+        try {
+            return rows;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    // --- writes, under the write lock
+
+    private void put(Student student) {
+        int code = acquireName(student.getName());
+        int row = rowOf(student.getId());
+        if (row >= 0) {
+            histogram.replace(marks[row], student.getMarks());
+            marks[row] = student.getMarks();
+            // after the acquire, so keeping the same name never frees it
+            releaseName(nameCodes[row]);
+            nameCodes[row] = code;
+            return;
+        }
+        if (rows == ids.length) {
+            grow();
+        }
+        row = rows++;
+        ids[row] = student.getId();
+        marks[row] = student.getMarks();
+        nameCodes[row] = code;
+        insertRow(row);
+        histogram.add(student.getMarks());
+        if (sorted) {
+            if (row > 0 && ids[rowAt(row - 1)] > student.getId()) {
+                sorted = false;
+                byId = null;
+            } else if (byId != null) {
+                if (byId.length == row) {
+                    byId = Arrays.copyOf(byId, row * 2);
+                }
+                byId[row] = row;
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        marks = Arrays.copyOf(marks, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        idTable = new int[tableSize(capacity)];
+        for (int row = 0; row < rows; row++) {
+            insertRow(row);
+        }
+    }
+
+    private void insertRow(int row) {
+        int mask = idTable.length - 1;
+        int slot = mix(ids[row]) & mask;
+        while (idTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        idTable[slot] = row + 1;
+    }
+
+    // --- reads, under either lock
+
+    private int rowOf(int id) {
+        int mask = idTable.length - 1;
+        for (int slot = mix(id) & mask; idTable[slot] != 0; slot = (slot + 1) & mask) {
+            int row = idTable[slot] - 1;
+            if (ids[row] == id) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private int rowAt(int position) {
+        return byId == null ? position : byId[position];
+    }
+
+    private Student student(int row) {
+        return new Student(ids[row], name(nameCodes[row]), marks[row]);
+    }
+
+    // keys hold the row's id in their low half
+    private List<Student> students(long[] keys, boolean inverted) {
+        List<Student> students = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            int id = SortKeys.low(inverted ? ~key : key);
+            students.add(student(rowOf(id)));
+        }
+        return students;
+    }
+
+    // read lock held on return, with byId covering every row
+    private void lockSorted() {
+        while (true) {
+            read.lock();
+            if (sorted) {
+                return;
+            }
+            read.unlock();
+            write.lock();
+            try {
+                if (!sorted) {
+                    long[] keys = new long[rows];
+                    for (int row = 0; row < rows; row++) {
+                        keys[row] = SortKeys.of(ids[row], row);
+                    }
+                    Arrays.sort(keys);
+                    byId = new int[Math.max(rows, 16)];
+                    for (int i = 0; i < rows; i++) {
+                        byId[i] = SortKeys.low(keys[i]);
+                    }
+                    sorted = true;
+                }
+            } finally {
+                write.unlock();
+            }
+        }
+    }
+
+    // --- name dictionary, under the write lock except for name and namePosition
+
+    private int acquireName(String name) {
+        if (name == null) {
+            return NO_NAME;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int hash = Arrays.hashCode(bytes);
+        int mask = nameTable.length - 1;
+        int slot = mix(hash) & mask;
+        for (; nameTable[slot] != 0; slot = (slot + 1) & mask) {
+            int code = nameTable[slot] - 1;
+            if (nameHashes[code] == hash && Arrays.equals(nameBytes, nameStart[code],
+                    nameStart[code] + nameLength[code], bytes, 0, bytes.length)) {
+                nameRefs[code]++;
+                return code;
+            }
+        }
+        int code = freeNameCount > 0 ? freeNames[--freeNameCount] : nextNameCode();
+        nameStart[code] = storeNameBytes(bytes);
+        nameLength[code] = bytes.length;
+        nameHashes[code] = hash;
+        nameRefs[code] = 1;
+        nameTable[slot] = code + 1;
+        linkSorted(code, name);
+        if (names * 2 > nameTable.length) {
+            rehashNames();
+        }
+        return code;
+    }
+
+    private void releaseName(int code) {
+        if (code == NO_NAME || --nameRefs[code] > 0) {
+            return;
+        }
+        unlinkName(code);
+        unlinkSorted(code);
+        deadNameBytes += nameLength[code];
+        if (freeNameCount == freeNames.length) {
+            freeNames = Arrays.copyOf(freeNames, freeNameCount * 2);
+        }
+        freeNames[freeNameCount++] = code;
+    }
+
+    private int nextNameCode() {
+        int code = nameCodesIssued++;
+        if (code == nameHashes.length) {
+            int capacity = code * 2;
+            nameStart = Arrays.copyOf(nameStart, capacity);
+            nameLength = Arrays.copyOf(nameLength, capacity);
+            nameHashes = Arrays.copyOf(nameHashes, capacity);
+            nameRefs = Arrays.copyOf(nameRefs, capacity);
+            byName = Arrays.copyOf(byName, capacity);
+            nameRank = Arrays.copyOf(nameRank, capacity);
+        }
+        return code;
+    }
+
+    // returns where the bytes start; repacks the live names instead of growing
+    // once at least half of the arena is freed names
+    private int storeNameBytes(byte[] bytes) {
+        if (nameBytesUsed + bytes.length > nameBytes.length) {
+            if (deadNameBytes * 2 >= nameBytesUsed) {
+                byte[] packed = new byte[Math.max(nameBytes.length, nameBytesUsed - deadNameBytes + bytes.length)];
+                int at = 0;
+                for (int i = 0; i < names; i++) {
+                    int code = byName[i];
+                    System.arraycopy(nameBytes, nameStart[code], packed, at, nameLength[code]);
+                    nameStart[code] = at;
+                    at += nameLength[code];
+                }
+                nameBytes = packed;
+                nameBytesUsed = at;
+                deadNameBytes = 0;
+            } else {
+                nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytes.length * 2, nameBytesUsed + bytes.length));
+            }
+        }
+        int start = nameBytesUsed;
+        System.arraycopy(bytes, 0, nameBytes, start, bytes.length);
+        nameBytesUsed += bytes.length;
+        return start;
+    }
+
+    private void rehashNames() {
+        nameTable = new int[nameTable.length * 2];
+        int mask = nameTable.length - 1;
+        for (int i = 0; i < names; i++) {
+            int code = byName[i];
+            int slot = mix(nameHashes[code]) & mask;
+            while (nameTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            nameTable[slot] = code + 1;
+        }
+    }
+
+    // linear probing delete: shifts later entries of the cluster back into the hole
+    private void unlinkName(int code) {
+        int mask = nameTable.length - 1;
+        int hole = mix(nameHashes[code]) & mask;
+        while (nameTable[hole] != code + 1) {
+            hole = (hole + 1) & mask;
+        }
+        for (int next = (hole + 1) & mask; nameTable[next] != 0; next = (next + 1) & mask) {
+            int home = mix(nameHashes[nameTable[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                nameTable[hole] = nameTable[next];
+                hole = next;
+            }
+        }
+        nameTable[hole] = 0;
+    }
+
+    private void linkSorted(int code, String name) {
+        int position = namePosition(name, false);
+        System.arraycopy(byName, position, byName, position + 1, names - position);
+        byName[position] = code;
+        names++;
+        for (int i = position; i < names; i++) {
+            nameRank[byName[i]] = i;
+        }
+    }
+
+    private void unlinkSorted(int code) {
+        int position = nameRank[code];
+        names--;
+        System.arraycopy(byName, position + 1, byName, position, names - position);
+        for (int i = position; i < names; i++) {
+            nameRank[byName[i]] = i;
+        }
+    }
+
+    /**
+     * The first position in name order whose name is not below {@code name};
+     * with {@code pastPrefix}, the first whose name is above it and does not
+     * start with it. Names sharing a prefix are adjacent in that order.
+     */
+    private int namePosition(String name, boolean pastPrefix) {
+        int low = 0;
+        int high = names;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            String probe = name(byName[mid]);
+            if (probe.compareTo(name) < 0 || (pastPrefix && probe.startsWith(name))) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private String name(int code) {
+        if (code == NO_NAME) {
+            return null;
+        }
+        return new String(nameBytes, nameStart[code], nameLength[code], StandardCharsets.UTF_8);
+    }
+
+    // --- helpers
+
+    private static Student copy(Student student) {
+        return new Student(student.getId(), student.getName(), student.getMarks());
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) * 2;
+    }
+}
@@ -0,0 +1,309 @@
+package com.flipkart.raghav.service;
+
+import io.jsonwebtoken.JwtException;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies the compact HS256 tokens this service issues without going through
+ * JJWT's parser, Jackson and the {@code Claims} map. It only understands flat
+ * JSON with string, integer, boolean, null and string-array values and a header
+ * limited to {@code alg}, {@code kid} and {@code typ}.
+ *
+ * <p>{@link #parse} returns {@code null} for anything else, including bad
+ * signatures and expired tokens, so the caller can fall back to JJWT, which
+ * then produces the usual exceptions.
+ */
+class FastHs256Parser {
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final JwtKeyRing keyRing;
+    private final ThreadLocal<KeyedMac> macs = ThreadLocal.withInitial(KeyedMac::new);
+
+    FastHs256Parser(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    VerifiedToken parse(String token) {
+        try {
+            return parseOrNull(token);
+        } catch (IllegalArgumentException | GeneralSecurityException | JwtException e) {
+            return null;
+        }
+    }
+
+    private VerifiedToken parseOrNull(String token) throws GeneralSecurityException {
+        if (token == null) {
+            return null;
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return null;
+        }
+
+        byte[] ascii = token.getBytes(StandardCharsets.US_ASCII);
+        Map<String, Object> header = JsonScanner.scan(decode(ascii, 0, headerEnd));
+        if (header == null || !"HS256".equals(header.get("alg")) || !knownHeader(header)) {
+            return null;
+        }
+        Object kid = header.get("kid");
+        SecretKey key;
+        if (kid == null || kid instanceof String) {
+            key = keyRing.verificationKey((String) kid);
+        } else {
+            return null;
+        }
+
+        Mac mac = macs.get().forKey(key);
+        mac.update(ascii, 0, payloadEnd);
+        byte[] expected = mac.doFinal();
+        byte[] actual = decode(ascii, payloadEnd + 1, ascii.length);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+
+        Map<String, Object> claims = JsonScanner.scan(decode(ascii, headerEnd + 1, payloadEnd));
+        if (claims == null || claims.containsKey("nbf")) {
+            return null;
+        }
+        Date expiration = toDate(claims, "exp");
+        if (expiration == null || !expiration.after(new Date())) {
+            return null;
+        }
+        Date issuedAt = toDate(claims, "iat");
+        Object subject = claims.get("sub");
+        if (issuedAt == null && claims.containsKey("iat") || subject != null && !(subject instanceof String)) {
+            return null;
+        }
+        return new VerifiedToken((String) subject, expiration, claims, (String) kid);
+    }
+
+    private static boolean knownHeader(Map<String, Object> header) {
+        for (String name : header.keySet()) {
+            if (!name.equals("alg") && !name.equals("kid") && !name.equals("typ")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Date toDate(Map<String, Object> claims, String name) {
+        if (!(claims.get(name) instanceof Long seconds)) {
+            return null;
+        }
+        Date date = new Date(seconds * 1000);
+        claims.put(name, date);
+        return date;
+    }
+
+    private static byte[] decode(byte[] ascii, int from, int to) {
+        ByteBuffer decoded = DECODER.decode(ByteBuffer.wrap(ascii, from, to - from));
+        return decoded.array().length == decoded.remaining() ? decoded.array() : Arrays.copyOf(decoded.array(), decoded.remaining());
+    }
+
+    private static final class KeyedMac {
+        private SecretKey key;
+        private Mac mac;
+
+        Mac forKey(SecretKey key) throws GeneralSecurityException {
+            if (mac == null) {
+                mac = Mac.getInstance("HmacSHA256");
+            }
+            if (this.key != key) {
+                mac.init(key);
+                this.key = key;
+            }
+            return mac;
+        }
+    }
+
+    /**
+     * Just enough JSON to read a flat object; returns {@code null} for nested
+     * objects, non-integer numbers and anything malformed.
+     */
+    static final class JsonScanner {
+        private final String json;
+        private int pos;
+
+        private JsonScanner(String json) {
+            this.json = json;
+        }
+
+        static Map<String, Object> scan(byte[] utf8) {
+            if (utf8 == null) {
+                return null;
+            }
+            JsonScanner scanner = new JsonScanner(new String(utf8, StandardCharsets.UTF_8));
+            Map<String, Object> result = scanner.object();
+            scanner.skipWhitespace();
+            return scanner.pos == scanner.json.length() ? result : null;
+        }
+
+        private Map<String, Object> object() {
+            if (!consume('{')) {
+                return null;
+            }
+            Map<String, Object> values = new HashMap<>();
+            if (consume('}')) {
+                return values;
+            }
+            do {
+                String name = string();
+                if (name == null || !consume(':')) {
+                    return null;
+                }
+                skipWhitespace();
+                if (pos >= json.length()) {
+                    return null;
+                }
+                Object value;
+                char c = json.charAt(pos);
+                if (c == '"') {
+                    value = string();
+                } else if (c == '[') {
+                    value = stringArray();
+                } else if (c == '-' || c >= '0' && c <= '9') {
+                    value = integer();
+                } else if (json.startsWith("true", pos)) {
+                    pos += 4;
+                    value = Boolean.TRUE;
+                } else if (json.startsWith("false", pos)) {
+                    pos += 5;
+                    value = Boolean.FALSE;
+                } else if (json.startsWith("null", pos)) {
+                    pos += 4;
+                    values.put(name, null);
+                    continue;
+                } else {
+                    return null;
+                }
+                if (value == null || values.put(name, value) != null) {
+                    return null;
+                }
+            } while (consume(','));
+            return consume('}') ? values : null;
+        }
+
+        private List<String> stringArray() {
+            consume('[');
+            List<String> values = new ArrayList<>();
+            if (consume(']')) {
+                return values;
+            }
+            do {
+                String value = string();
+                if (value == null) {
+                    return null;
+                }
+                values.add(value);
+            } while (consume(','));
+            return consume(']') ? values : null;
+        }
+
+        private Long integer() {
+            int start = pos;
+            if (json.charAt(pos) == '-') {
+                pos++;
+            }
+            while (pos < json.length() && json.charAt(pos) >= '0' && json.charAt(pos) <= '9') {
+                pos++;
+            }
+            if (pos == start || pos < json.length() && (json.charAt(pos) == '.' || json.charAt(pos) == 'e' || json.charAt(pos) == 'E')) {
+                return null;
+            }
+            try {
+                return Long.parseLong(json, start, pos, 10);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private String string() {
+            if (!consume('"')) {
+                return null;
+            }
+            int start = pos;
+            while (pos < json.length()) {
+                char c = json.charAt(pos);
+                if (c == '"') {
+                    return json.substring(start, pos++);
+                }
+                if (c == '\\') {
+                    return escapedString(start);
+                }
+                pos++;
+            }
+            return null;
+        }
+
+        private String escapedString(int start) {
+            StringBuilder value = new StringBuilder(json.length() - start).append(json, start, pos);
+            while (pos < json.length()) {
+                char c = json.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= json.length()) {
+                    return null;
+                }
+                char escaped = json.charAt(pos++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > json.length()) {
+                            return null;
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(json, pos, pos + 4, 16));
+                        } catch (NumberFormatException e) {
+                            return null;
+                        }
+                        pos += 4;
+                    }
+                    default -> {
+                        return null;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private boolean consume(char expected) {
+            skipWhitespace();
+            if (pos < json.length() && json.charAt(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
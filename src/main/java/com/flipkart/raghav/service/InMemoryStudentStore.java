@@ -0,0 +1,261 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Heap-backed {@link StudentStore} on a {@link ConcurrentHashMap}: lookups by id
+ * are lock-free and writers only contend when they hit the same bin. A sorted
+ * set of ids alongside serves keyset pages, and sorted indexes on
+ * (marks, id) and (name, id) serve {@link #query} as range scans. A
+ * {@link MarksHistogram} is kept up to date on every write for {@link #stats}.
+ * Selected with
+ * {@code students.store=memory}, the default; data does not survive a restart.
+ *
+ * <p>Writers share the read side of {@link #snapshotLock} so they run
+ * concurrently with each other; {@link #findAll} takes the write side just long
+ * enough to copy the values, so a listing never shows half of a concurrent
+ * batch of writes. Students are copied on the way in, so callers can keep
+ * mutating the instance they passed. Index entries for an id are swapped
+ * inside {@link ConcurrentHashMap#compute}, so two writers to the same id cannot
+ * leave a stale entry behind.
+ */
+@Component
+@ConditionalOnProperty(name = "students.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryStudentStore implements StudentStore {
+
+    private final ConcurrentHashMap<Integer, Student> students = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Integer> ids = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListMap<Long, Integer> byMarks = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<NameKey, Integer> byName = new ConcurrentSkipListMap<>();
+    private final MarksHistogram marks = new MarksHistogram();
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final Lock writers = snapshotLock.readLock();
+    private final Lock snapshot = snapshotLock.writeLock();
+
+    public InMemoryStudentStore() {
+        this(List.of(new Student(1, "Navin", 60), new Student(2, "Kiran", 70)));
+    }
+
+    public InMemoryStudentStore(List<Student> initial) {
+        initial.forEach(this::save);
+    }
+
+    @Override
+    public Student save(Student student) {
+        Student copy = new Student(student.getId(), student.getName(), student.getMarks());
+        writers.lock();
+        try {
+            students.compute(copy.getId(), (id, previous) -> {
+                if (previous != null) {
+                    byMarks.remove(marksKey(previous.getMarks(), id));
+                    byName.remove(new NameKey(previous.getName(), id));
+                    marks.replace(previous.getMarks(), copy.getMarks());
+                } else {
+                    marks.add(copy.getMarks());
+                }
+                byMarks.put(marksKey(copy.getMarks(), id), id);
+                byName.put(new NameKey(copy.getName(), id), id);
+                return copy;
+            });
+            ids.add(copy.getId());
+        } finally {
+            writers.unlock();
+        }
+        return copy;
+    }
+
+    @Override
+    public List<Student> saveAll(List<Student> batch) {
+        List<Student> saved = new ArrayList<>(batch.size());
+        for (Student student : batch) {
+            saved.add(save(student));
+        }
+        return saved;
+    }
+
+    @Override
+    public Student findById(int id) {
+        return students.get(id);
+    }
+
+    @Override
+    public List<Student> findPage(int afterId, int limit) {
+        List<Student> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Integer id : ids.tailSet(afterId, false)) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(students.get(id));
+        }
+        return page;
+    }
+
+    /**
+     * Walks the index matching the sort field when it can, stopping after
+     * {@code limit} matches. If the sort field is unfiltered but the other one is
+     * filtered, it walks the filtered range instead and keeps the best
+     * {@code limit} matches in a bounded heap.
+     */
+    @Override
+    public List<Student> query(StudentQuery query) {
+        boolean ordered = switch (query.sortBy()) {
+            case ID -> !query.filtersMarks() && !query.filtersName();
+            case MARKS -> query.filtersMarks() || !query.filtersName();
+            case NAME -> query.filtersName() || !query.filtersMarks();
+        };
+        if (!ordered) {
+            return best(query.filtersMarks() ? marksRange(query, false) : nameRange(query, false), query);
+        }
+        Iterable<Integer> candidates = switch (query.sortBy()) {
+            case ID -> query.descending() ? ids.descendingSet() : ids;
+            case MARKS -> marksRange(query, query.descending());
+            case NAME -> nameRange(query, query.descending());
+        };
+        List<Student> result = new ArrayList<>(Math.min(query.limit(), 1024));
+        for (Integer id : candidates) {
+            // the index may be a step behind a concurrent update, so re-check the row
+            Student student = students.get(id);
+            if (student != null && query.matches(student)) {
+                result.add(student);
+                if (result.size() == query.limit()) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // the first limit matches in query order, through a heap whose head is the worst one kept
+    private List<Student> best(Iterable<Integer> candidates, StudentQuery query) {
+        Comparator<Student> order = query.comparator();
+        PriorityQueue<Student> heap = new PriorityQueue<>(Math.min(query.limit(), 1024), order.reversed());
+        for (Integer id : candidates) {
+            Student student = students.get(id);
+            if (student == null || !query.matches(student)) {
+                continue;
+            }
+            if (heap.size() < query.limit()) {
+                heap.add(student);
+            } else if (order.compare(student, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(student);
+            }
+        }
+        List<Student> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+
+    private Iterable<Integer> marksRange(StudentQuery query, boolean descending) {
+        long from = marksKey(query.minMarks() == null ? Integer.MIN_VALUE : query.minMarks(), Integer.MIN_VALUE);
+        long to = marksKey(query.maxMarks() == null ? Integer.MAX_VALUE : query.maxMarks(), Integer.MAX_VALUE);
+        NavigableMap<Long, Integer> range = byMarks.subMap(from, true, to, true);
+        return (descending ? range.descendingMap() : range).values();
+    }
+
+    private Iterable<Integer> nameRange(StudentQuery query, boolean descending) {
+        NavigableMap<NameKey, Integer> range = byName;
+        String prefix = query.namePrefix();
+        if (prefix != null) {
+            String end = successor(prefix);
+            range = end == null
+                    ? byName.tailMap(new NameKey(prefix, Integer.MIN_VALUE), true)
+                    : byName.subMap(new NameKey(prefix, Integer.MIN_VALUE), true, new NameKey(end, Integer.MIN_VALUE), false);
+        }
+        return (descending ? range.descendingMap() : range).values();
+    }
+
+    // the smallest string greater than every string starting with prefix, or null if there is none
+    private static String successor(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+
+    // marks in the high half, id (sign-flipped so it sorts as signed) in the low half
+    private static long marksKey(int marks, int id) {
+        return ((long) marks << 32) | ((id ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    private record NameKey(String name, int id) implements Comparable<NameKey> {
+        private static final Comparator<NameKey> ORDER = Comparator
+                .comparing(NameKey::name, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparingInt(NameKey::id);
+
+        @Override
+        public int compareTo(NameKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * Walks the (marks, id) index from the top one mark at a time, reading the
+     * ids inside each mark in ascending order, so it costs O(log n + k)
+     * whatever the roster size.
+     */
+    @Override
+    public List<Student> top(int k) {
+        List<Student> top = new ArrayList<>(Math.min(k, 1024));
+        Map.Entry<Long, Integer> highest = byMarks.lastEntry();
+        while (highest != null && top.size() < k) {
+            int mark = (int) (highest.getKey() >> 32);
+            long first = marksKey(mark, Integer.MIN_VALUE);
+            for (Integer id : byMarks.subMap(first, true, marksKey(mark, Integer.MAX_VALUE), true).values()) {
+                Student student = students.get(id);
+                // skip an entry a concurrent update has just moved to another mark
+                if (student != null && student.getMarks() == mark) {
+                    top.add(student);
+                    if (top.size() == k) {
+                        break;
+                    }
+                }
+            }
+            highest = byMarks.lowerEntry(first);
+        }
+        return top;
+    }
+
+    @Override
+    public StudentStats stats(double... percentiles) {
+        return marks.snapshot(percentiles);
+    }
+
+    /** A consistent snapshot of every student, ordered by id. */
+    public List<Student> findAll() {
+        List<Student> copy;
+        snapshot.lock();
+        try {
+            copy = new ArrayList<>(students.values());
+        } finally {
+            snapshot.unlock();
+        }
+        copy.sort(Comparator.comparingInt(Student::getId));
+        return copy;
+    }
+
+    @Override
+    public int size() {
+        return students.size();
+    }
+}
@@ -1,86 +1,110 @@
 package com.flipkart.raghav.service;
 
+import com.flipkart.raghav.model.UserPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.KeyGenerator;
-import javax.crypto.SecretKey;
-import java.security.Key;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 @Service
 public class JWTService {
-    private String secretKey = "";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String VERSION_CLAIM = "ver";
+
+    private final JwtKeyRing keyRing;
+    private final JwtParser parser;
+    private final FastHs256Parser fastParser;
 
     public JWTService(){
-        try {
-            KeyGenerator keyGenerator = KeyGenerator.getInstance("HmacSHA256");
-            SecretKey sk = keyGenerator.generateKey();
-            secretKey = Base64.getEncoder().encodeToString(sk.getEncoded());
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
+        this(new JwtKeyRing());
+    }
+
+    public JWTService(JwtKeyRing keyRing){
+        this(keyRing, false);
+    }
+
+    @Autowired
+    public JWTService(JwtKeyRing keyRing, @Value("${jwt.fast-path.enabled:false}") boolean fastPath){
+        this.keyRing = keyRing;
+        this.parser = Jwts.parser()
+                .keyLocator(keyRing)
+                .build();
+        this.fastParser = fastPath ? new FastHs256Parser(keyRing) : null;
     }
 
     Map<String,Object> claims = new HashMap<>();
     public String generateToken(String username){
+        JwtKeyRing.SigningKey signing = keyRing.activeKey();
 
         return Jwts
                 .builder()
+                .header()
+                .keyId(signing.kid())
+                .and()
                 .claims()
                 .add(claims)
                 .subject(username)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + 60 * 60 * 30))
                 .and()
-                .signWith(getKey())
+                .signWith(signing.key())
                 .compact();
 
     }
 
-    private SecretKey getKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public String extractUserName(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    public String generateClaimsToken(UserDetails userDetails){
+        Map<String,Object> userClaims = new HashMap<>(claims);
+        userClaims.put(ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        if (userDetails instanceof UserPrincipal principal) {
+            userClaims.put(VERSION_CLAIM, principal.getTokenVersion());
+        }
+        JwtKeyRing.SigningKey signing = keyRing.activeKey();
 
-    private <T> T extractClaim(java.lang.String token, Function<Claims,T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return Jwts
+                .builder()
+                .header()
+                .keyId(signing.kid())
+                .and()
+                .claims()
+                .add(userClaims)
+                .subject(userDetails.getUsername())
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + 60 * 60 * 30))
+                .and()
+                .signWith(signing.key())
+                .compact();
     }
 
-    private Claims extractAllClaims(String token) {
-        return  Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public VerifiedToken verify(String token) {
+        if (fastParser != null) {
+            VerifiedToken verified = fastParser.parse(token);
+            if (verified != null) {
+                return verified;
+            }
+        }
+        Jws<Claims> jws = parseSigned(token);
+        return VerifiedToken.of(jws.getHeader().getKeyId(), jws.getPayload());
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public String extractUserName(String token) {
+        return verify(token).subject();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-
+    private Jws<Claims> parseSigned(String token) {
+        return parser.parseSignedClaims(token);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token,Claims::getExpiration);
+    public boolean validateToken(String token, UserDetails userDetails) {
+        return verify(token).isValidFor(userDetails);
     }
 
 }
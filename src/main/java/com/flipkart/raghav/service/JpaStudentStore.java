@@ -0,0 +1,192 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+import com.flipkart.raghav.repository.StudentRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link StudentStore} backed by the {@code student} table. Listing is keyset
+ * paged on the primary key, so no request ever loads the whole table. The table
+ * and its indexes come from {@code db/student.sql}, which has to be applied
+ * before selecting this store with {@code students.store=jpa}.
+ *
+ * <p>{@link #saveAll} checks which ids already exist with one query per chunk,
+ * then persists the new students and merges the rest, so inserts go out as JDBC
+ * batches instead of a select-then-insert per row. The persistence context is
+ * flushed and cleared every {@code hibernate.jdbc.batch_size} rows.
+ *
+ * <p>{@link #query} becomes a single bounded select; the (marks, id) and
+ * (name, id) indexes on {@link Student} keep it a range scan. A name prefix is
+ * a left-anchored {@code LIKE}, which Postgres can only serve from the index
+ * under the C collation or {@code text_pattern_ops}. {@link #top} reads the
+ * (marks desc, id) index in order and stops after {@code k} rows.
+ *
+ * <p>{@link #stats} reads a {@link MarksHistogram} seeded with one
+ * {@code group by marks} while the store is being initialized, before anything
+ * can write through it, and updated after each committed write. Writes read the
+ * rows they overwrite {@code for update}, so concurrent writers to one id each
+ * see the marks the other committed. It only sees writes made through this
+ * instance.
+ */
+@Component
+@ConditionalOnProperty(name = "students.store", havingValue = "jpa")
+public class JpaStudentStore implements StudentStore {
+
+    @Autowired
+    private StudentRepo studentRepo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize = 50;
+
+    private final MarksHistogram marks = new MarksHistogram();
+
+    @PostConstruct
+    public void preload() {
+        MarksHistogram loaded = new MarksHistogram();
+        for (Object[] row : studentRepo.countByMarks()) {
+            loaded.add(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+        marks.clear();
+        marks.merge(loaded);
+    }
+
+    @Override
+    @Transactional
+    public Student save(Student student) {
+        Integer previous = studentRepo.findAllByIdForUpdate(List.of(student.getId())).stream()
+                .findFirst().map(Student::getMarks).orElse(null);
+        Student saved = studentRepo.save(student);
+        int current = saved.getMarks();
+        afterCommit(() -> {
+            if (previous == null) {
+                marks.add(current);
+            } else {
+                marks.replace(previous, current);
+            }
+        });
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Student> saveAll(List<Student> students) {
+        List<Student> saved = new ArrayList<>(students.size());
+        List<Integer> removedMarks = new ArrayList<>();
+        List<Integer> addedMarks = new ArrayList<>(students.size());
+        for (int from = 0; from < students.size(); from += batchSize) {
+            List<Student> chunk = students.subList(from, Math.min(from + batchSize, students.size()));
+            Map<Integer, Integer> existing = new HashMap<>();
+            studentRepo.findAllByIdForUpdate(chunk.stream().map(Student::getId).toList())
+                    .forEach(student -> existing.put(student.getId(), student.getMarks()));
+            for (Student student : chunk) {
+                Integer previous = existing.put(student.getId(), student.getMarks());
+                if (previous == null) {
+                    entityManager.persist(student);
+                    saved.add(student);
+                } else {
+                    removedMarks.add(previous);
+                    saved.add(entityManager.merge(student));
+                }
+                addedMarks.add(student.getMarks());
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+        afterCommit(() -> {
+            removedMarks.forEach(marks::remove);
+            addedMarks.forEach(marks::add);
+        });
+        return saved;
+    }
+
+    @Override
+    public Student findById(int id) {
+        return studentRepo.findById(id).orElse(null);
+    }
+
+    @Override
+    public List<Student> findPage(int afterId, int limit) {
+        return studentRepo.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    @Override
+    public List<Student> query(StudentQuery query) {
+        Sort.Direction direction = query.descending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = switch (query.sortBy()) {
+            case ID -> Sort.by(direction, "id");
+            case MARKS -> Sort.by(direction, "marks", "id");
+            case NAME -> Sort.by(direction, "name", "id");
+        };
+        return studentRepo.findBy(matching(query), q -> q.sortBy(sort).limit(query.limit()).all());
+    }
+
+    @Override
+    public List<Student> top(int k) {
+        Sort sort = Sort.by(Sort.Order.desc("marks"), Sort.Order.asc("id"));
+        return studentRepo.findBy((root, cq, cb) -> cb.conjunction(), q -> q.sortBy(sort).limit(k).all());
+    }
+
+    private static Specification<Student> matching(StudentQuery query) {
+        return (root, cq, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(3);
+            if (query.minMarks() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("marks"), query.minMarks()));
+            }
+            if (query.maxMarks() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("marks"), query.maxMarks()));
+            }
+            if (query.namePrefix() != null) {
+                String escaped = query.namePrefix().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+                predicates.add(cb.like(root.get("name"), escaped + "%", '\\'));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    @Override
+    public StudentStats stats(double... percentiles) {
+        return marks.snapshot(percentiles);
+    }
+
+    // the histogram must not count writes that roll back
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return (int) studentRepo.count();
+    }
+}
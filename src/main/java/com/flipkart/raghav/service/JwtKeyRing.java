@@ -0,0 +1,140 @@
+package com.flipkart.raghav.service;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the HMAC keys used to sign and verify tokens, already derived into
+ * {@link SecretKey}s and indexed by key id ({@code kid}).
+ *
+ * <p>Keys are configured as {@code jwt.keys=kid1:base64Secret,kid2:base64Secret}
+ * and {@code jwt.active-kid} picks the one used for signing. Rotating is a matter
+ * of shipping the new key to every node first, then switching {@code jwt.active-kid};
+ * tokens signed with the old key keep verifying until it is removed.
+ * Without configuration a random key is generated, as before.
+ *
+ * <p>The active kid and its key are published together as one {@link SigningKey}, so a
+ * token is never stamped with one kid and signed with another key mid-rotation. Tokens
+ * without a {@code kid} header are rejected: every token issued since key ids were
+ * introduced carries one and tokens only live for minutes.
+ */
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    private final Map<String, SecretKey> keys = new ConcurrentHashMap<>();
+    private volatile SigningKey active;
+
+    public record SigningKey(String kid, SecretKey key) {
+    }
+
+    public JwtKeyRing() {
+        addGeneratedKey();
+    }
+
+    @Autowired
+    public JwtKeyRing(@Value("${jwt.keys:}") String configuredKeys, @Value("${jwt.active-kid:}") String activeKid) {
+        if (configuredKeys.isBlank()) {
+            addGeneratedKey();
+            return;
+        }
+        String first = null;
+        for (String entry : configuredKeys.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("jwt.keys entries must look like kid:base64Secret");
+            }
+            String kid = entry.substring(0, separator).trim();
+            addKey(kid, Keys.hmacShaKeyFor(Decoders.BASE64.decode(entry.substring(separator + 1).trim())));
+            if (first == null) {
+                first = kid;
+            }
+        }
+        activate(activeKid.isBlank() ? first : activeKid);
+    }
+
+    private void addGeneratedKey() {
+        try {
+            SecretKey key = KeyGenerator.getInstance("HmacSHA256").generateKey();
+            addKey(fingerprint(key), key);
+            activate(fingerprint(key));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void addKey(String kid, SecretKey key) {
+        keys.put(kid, key);
+    }
+
+    public synchronized void activate(String kid) {
+        SecretKey key = keys.get(kid);
+        if (key == null) {
+            throw new IllegalArgumentException("Unknown key id: " + kid);
+        }
+        active = new SigningKey(kid, key);
+    }
+
+    public synchronized void retire(String kid) {
+        if (kid.equals(active.kid())) {
+            throw new IllegalStateException("Cannot retire the active signing key: " + kid);
+        }
+        keys.remove(kid);
+    }
+
+    /** The kid and key to sign with, read once per token. */
+    public SigningKey activeKey() {
+        return active;
+    }
+
+    public String activeKeyId() {
+        return active.kid();
+    }
+
+    public SecretKey signingKey() {
+        return active.key();
+    }
+
+    public boolean contains(String kid) {
+        return kid != null && keys.containsKey(kid);
+    }
+
+    public SecretKey verificationKey(String kid) {
+        if (kid == null) {
+            throw new SignatureException("Token has no signing key id");
+        }
+        SecretKey key = keys.get(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown signing key id: " + kid);
+        }
+        return key;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        return verificationKey(header.getKeyId());
+    }
+
+    static String fingerprint(SecretKey key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
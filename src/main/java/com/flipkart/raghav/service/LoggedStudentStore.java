@@ -0,0 +1,136 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Makes a memory-only {@link StudentStore} durable through a {@link StudentLog}.
+ * Construction replays the log into the store; after that a write is applied,
+ * appended to the log, and acknowledged once its group commit is fsynced.
+ * Reads go straight to the store.
+ *
+ * <p>Apply and append happen together under a lock striped by student id, so
+ * the log holds the writes to any one student in the order the store saw them,
+ * which is all replay needs, and a write the store rejects is never logged.
+ * Writes to different stripes apply and append in parallel. A batch takes its
+ * stripes in ascending order so two batches can never deadlock. The fsync wait
+ * happens outside the locks, which is what lets concurrent writers share one.
+ * A reader can briefly see a write whose fsync is still in flight.
+ *
+ * <p>Once the log has failed a write or been closed, every later write is
+ * refused before it reaches the store, so the store never holds writes the log
+ * will not replay beyond the ones already in flight when it failed.
+ */
+public class LoggedStudentStore implements StudentStore {
+
+    private final StudentStore delegate;
+    private final StudentLog log;
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final long recovered;
+
+    public LoggedStudentStore(StudentStore delegate, StudentLog log) {
+        this.delegate = delegate;
+        this.log = log;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.recovered = log.recover(delegate::saveAll);
+    }
+
+    /** Records replayed from the snapshot and log at startup. */
+    public long recovered() {
+        return recovered;
+    }
+
+    public StudentStore delegate() {
+        return delegate;
+    }
+
+    @Override
+    public Student save(Student student) {
+        Student saved;
+        long sequence;
+        ReentrantLock stripe = stripes[stripe(student.getId())];
+        stripe.lock();
+        try {
+            log.checkWritable();
+            saved = delegate.save(student);
+            sequence = log.append(student);
+        } finally {
+            stripe.unlock();
+        }
+        log.awaitDurable(sequence);
+        log.maybeSnapshot(delegate);
+        return saved;
+    }
+
+    @Override
+    public List<Student> saveAll(List<Student> students) {
+        List<Student> saved;
+        long sequence;
+        boolean[] held = new boolean[STRIPES];
+        for (Student student : students) {
+            held[stripe(student.getId())] = true;
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            if (held[i]) {
+                stripes[i].lock();
+            }
+        }
+        try {
+            log.checkWritable();
+            saved = delegate.saveAll(students);
+            sequence = log.appendAll(students);
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) {
+                if (held[i]) {
+                    stripes[i].unlock();
+                }
+            }
+        }
+        log.awaitDurable(sequence);
+        log.maybeSnapshot(delegate);
+        return saved;
+    }
+
+    private static int stripe(int id) {
+        // Fibonacci hashing: the top 6 bits spread sequential ids across all 64 stripes
+        return (id * 0x9E3779B9) >>> 26;
+    }
+
+    @Override
+    public Student findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Student> findPage(int afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Student> query(StudentQuery query) {
+        return delegate.query(query);
+    }
+
+    @Override
+    public List<Student> top(int k) {
+        return delegate.top(k);
+    }
+
+    @Override
+    public StudentStats stats(double... percentiles) {
+        return delegate.stats(percentiles);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+}
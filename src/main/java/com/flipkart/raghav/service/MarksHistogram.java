@@ -0,0 +1,123 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.InvalidStudentRequestException;
+import com.flipkart.raghav.model.StudentStats;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running count, sum and per-mark histogram of student marks. Every bucket is
+ * one distinct mark, so min, max and nearest-rank percentiles are exact and a
+ * snapshot walks the buckets (a few hundred at most for exam marks), never the
+ * students. Updates are O(log buckets); histograms from several stores can be
+ * combined with {@link #merge}.
+ *
+ * <p>Updates commute: two committed writes to the same student can report in
+ * the opposite order, so a removal of a mark that is not there yet is held
+ * back and cancels the next add of that mark.
+ */
+public class MarksHistogram {
+
+    public static final double[] DEFAULT_PERCENTILES = {50, 90, 95, 99};
+
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private final Map<Integer, Long> owed = new HashMap<>();
+    private long count;
+    private long sum;
+
+    public void add(int marks) {
+        add(marks, 1);
+    }
+
+    public synchronized void add(int marks, long n) {
+        if (n <= 0) {
+            return;
+        }
+        Long debt = owed.remove(marks);
+        if (debt != null) {
+            if (debt > n) {
+                owed.put(marks, debt - n);
+                return;
+            }
+            n -= debt;
+            if (n == 0) {
+                return;
+            }
+        }
+        buckets.merge(marks, n, Long::sum);
+        count += n;
+        sum += marks * n;
+    }
+
+    /** Removes one occurrence of {@code marks}; if there is none yet, the next add of it is cancelled instead. */
+    public synchronized void remove(int marks) {
+        Long n = buckets.get(marks);
+        if (n == null) {
+            owed.merge(marks, 1L, Long::sum);
+            return;
+        }
+        if (n == 1) {
+            buckets.remove(marks);
+        } else {
+            buckets.put(marks, n - 1);
+        }
+        count--;
+        sum -= marks;
+    }
+
+    public synchronized void replace(int previous, int marks) {
+        if (previous != marks) {
+            remove(previous);
+            add(marks);
+        }
+    }
+
+    public synchronized void merge(MarksHistogram other) {
+        Map<Integer, Long> theirs;
+        synchronized (other) {
+            theirs = new TreeMap<>(other.buckets);
+        }
+        theirs.forEach(this::add);
+    }
+
+    public synchronized void clear() {
+        buckets.clear();
+        owed.clear();
+        count = 0;
+        sum = 0;
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    /** Nearest-rank percentiles for each {@code p} in (0, 100]. */
+    public synchronized StudentStats snapshot(double... percentiles) {
+        Map<String, Integer> ranked = new LinkedHashMap<>();
+        if (count == 0) {
+            return new StudentStats(0, 0, null, null, null, ranked);
+        }
+        for (double p : percentiles) {
+            if (!(p > 0 && p <= 100)) {
+                throw new InvalidStudentRequestException("percentile must be in (0, 100]: " + p);
+            }
+            long rank = (long) Math.ceil(p / 100 * count);
+            long seen = 0;
+            for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+                seen += bucket.getValue();
+                if (seen >= rank) {
+                    ranked.put(label(p), bucket.getKey());
+                    break;
+                }
+            }
+        }
+        return new StudentStats(count, sum, (double) sum / count, buckets.firstKey(), buckets.lastKey(), ranked);
+    }
+
+    private static String label(double p) {
+        return p == Math.rint(p) ? "p" + (long) p : "p" + p;
+    }
+}
@@ -1,28 +1,63 @@
 package com.flipkart.raghav.service;
 
+import com.flipkart.raghav.model.UserCredentials;
 import com.flipkart.raghav.model.UserPrincipal;
-import com.flipkart.raghav.model.Users;
 import com.flipkart.raghav.repository.UserRepo;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class MyUserDetailsService implements UserDetailsService {
+public class MyUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
-    @Autowired
-    private UserRepo userRepo;
+    private final UserRepo userRepo;
+    private final UserCache userCache;
+    private final UnknownUsernames unknownUsernames;
+    private final SingleFlight<String, UserCredentials> lookups = new SingleFlight<>();
+
+    public MyUserDetailsService(UserRepo userRepo, UserCache userCache, UnknownUsernames unknownUsernames) {
+        this.userRepo = userRepo;
+        this.userCache = userCache;
+        this.unknownUsernames = unknownUsernames;
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Users user = userRepo.findByUsername(username);
+        UserDetails cached = userCache.getUserFromCache(username);
+        if (cached != null) {
+            return cached;
+        }
+        if (unknownUsernames.isKnownMissing(username)) {
+            throw new UsernameNotFoundException("No User Found!!!");
+        }
+
+        UserCredentials user = lookups.execute(username, () -> {
+            UserCredentials found = userRepo.findCredentialsByUsername(username);
+            // a replica can lag behind a registration that just committed; only the primary can say it is missing
+            return found != null ? found : userRepo.findCredentialsOnPrimary(username);
+        });
 
         if(user == null){
-            System.out.println("No User Found");
+            unknownUsernames.recordMissing(username);
             throw new UsernameNotFoundException("No User Found!!!");
         }
-        return new UserPrincipal(user);
+        UserPrincipal principal = new UserPrincipal(user);
+        userCache.putUserInCache(principal);
+        return principal;
+    }
+
+    // called after a successful login whose stored hash is outdated; the password itself is unchanged
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepo.updatePassword(user.getUsername(), newPassword);
+        userCache.removeUserFromCache(user.getUsername());
+        if (user instanceof UserPrincipal principal) {
+            return principal.withPassword(newPassword);
+        }
+        return User.withUserDetails(user).password(newPassword).build();
     }
 }
@@ -0,0 +1,433 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.InvalidStudentRequestException;
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link StudentStore} that keeps every student as a fixed 64-byte record
+ * outside the Java heap, in direct buffers or, when {@code students.offheap.file}
+ * is set, in chunks memory-mapped from that file. The heap holds only the
+ * id&rarr;row table (a {@code long} per slot) and, once ids have arrived out of
+ * order, an id-ordered row permutation, so GC work stays flat as the roster
+ * grows. Selected with {@code students.store=offheap}.
+ *
+ * <p>A record is id, marks, name length ({@code -1} for null) and up to
+ * {@value #MAX_NAME_BYTES} bytes of UTF-8 name; longer names are rejected.
+ * Storage grows a chunk of {@code students.offheap.chunk-records} records at a
+ * time and never moves a record. The mapped file is scratch space that lets the
+ * OS page cold records out; it is truncated on startup and not a durable copy.
+ */
+@Component
+@ConditionalOnProperty(name = "students.store", havingValue = "offheap")
+public class OffHeapStudentStore implements StudentStore {
+
+    static final int RECORD_BYTES = 64;
+    static final int MAX_NAME_BYTES = RECORD_BYTES - 10;
+    private static final int ID = 0;
+    private static final int MARKS = 4;
+    private static final int NAME_LENGTH = 8;
+    private static final int NAME = 10;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock read = lock.readLock();
+    private final Lock write = lock.writeLock();
+
+    private final int chunkShift;
+    private final int chunkMask;
+    private final FileChannel file;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private int rows;
+
+    // (id << 32) | (row + 1) per slot, 0 when empty
+    private long[] idTable = new long[64];
+
+    // rows in id order while `sorted`, rebuilt lazily once an id arrives out of order;
+    // null while every row was appended in id order, as row order is then id order
+    private int[] byId;
+    private boolean sorted = true;
+
+    private final MarksHistogram histogram = new MarksHistogram();
+
+    public OffHeapStudentStore(@Value("${students.offheap.chunk-records:65536}") int chunkRecords,
+                               @Value("${students.offheap.file:}") String file) {
+        // a power of two, small enough that a chunk stays int-addressable
+        int records = Integer.highestOneBit(Math.min(Math.max(chunkRecords, 1), 1 << 24) * 2 - 1);
+        this.chunkShift = Integer.numberOfTrailingZeros(records);
+        this.chunkMask = records - 1;
+        try {
+            this.file = file == null || file.isBlank() ? null : FileChannel.open(Path.of(file),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not open " + file, e);
+        }
+    }
+
+    @Override
+    public Student save(Student student) {
+        byte[] name = encode(student.getName());
+        write.lock();
+        try {
+            put(student, name);
+        } finally {
+            write.unlock();
+        }
+        return new Student(student.getId(), student.getName(), student.getMarks());
+    }
+
+    @Override
+    public List<Student> saveAll(List<Student> students) {
+        // encode first so a bad name rejects the batch before any of it is written
+        List<byte[]> names = new ArrayList<>(students.size());
+        for (Student student : students) {
+            names.add(encode(student.getName()));
+        }
+        List<Student> saved = new ArrayList<>(students.size());
+        write.lock();
+        try {
+            for (int i = 0; i < students.size(); i++) {
+                Student student = students.get(i);
+                put(student, names.get(i));
+                saved.add(new Student(student.getId(), student.getName(), student.getMarks()));
+            }
+        } finally {
+            write.unlock();
+        }
+        return saved;
+    }
+
+    @Override
+    public Student findById(int id) {
+        read.lock();
+        try {
+            int row = rowOf(id);
+            return row < 0 ? null : student(row);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public List<Student> findPage(int afterId, int limit) {
+        lockSorted();
+        try {
+            int low = 0;
+            int high = rows;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (idAt(rowAt(mid)) <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int end = (int) Math.min((long) low + limit, rows);
+            List<Student> page = new ArrayList<>(end - low);
+            for (int i = low; i < end; i++) {
+                page.add(student(rowAt(i)));
+            }
+            return page;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Scans the records, testing marks and the UTF-8 name prefix in place.
+     * Id and marks orders rank packed keys without decoding names; a name
+     * order decodes only the rows that pass the filters.
+     */
+    @Override
+    public List<Student> query(StudentQuery query) {
+        read.lock();
+        try {
+            long min = query.minMarks() == null ? Integer.MIN_VALUE : query.minMarks();
+            long max = query.maxMarks() == null ? Integer.MAX_VALUE : query.maxMarks();
+            byte[] prefix = query.filtersName() ? query.namePrefix().getBytes(StandardCharsets.UTF_8) : null;
+            if (query.sortBy() == StudentQuery.SortField.NAME) {
+                return queryByName(query, min, max, prefix);
+            }
+            SortKeys.Smallest best = new SortKeys.Smallest(Math.min(query.limit(), rows));
+            for (int row = 0; row < rows; row++) {
+                ByteBuffer chunk = chunks.get(row >>> chunkShift);
+                int at = (row & chunkMask) * RECORD_BYTES;
+                long marks = chunk.getInt(at + MARKS);
+                if (((marks - min) | (max - marks)) < 0 || (prefix != null && !startsWith(chunk, at, prefix))) {
+                    continue;
+                }
+                int id = chunk.getInt(at + ID);
+                long key = SortKeys.of(query.sortBy() == StudentQuery.SortField.MARKS ? (int) marks : 0, id);
+                best.offer(query.descending() ? ~key : key);
+            }
+            List<Student> students = new ArrayList<>();
+            for (long key : best.sorted()) {
+                students.add(student(rowOf(SortKeys.low(query.descending() ? ~key : key))));
+            }
+            return students;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    private List<Student> queryByName(StudentQuery query, long min, long max, byte[] prefix) {
+        // worst of the best `limit` at the head, so it can be evicted
+        PriorityQueue<Student> best = new PriorityQueue<>(query.comparator().reversed());
+        for (int row = 0; row < rows; row++) {
+            ByteBuffer chunk = chunks.get(row >>> chunkShift);
+            int at = (row & chunkMask) * RECORD_BYTES;
+            long marks = chunk.getInt(at + MARKS);
+            if (((marks - min) | (max - marks)) < 0 || (prefix != null && !startsWith(chunk, at, prefix))) {
+                continue;
+            }
+            best.add(student(row));
+            if (best.size() > query.limit()) {
+                best.poll();
+            }
+        }
+        List<Student> students = new ArrayList<>(best);
+        students.sort(query.comparator());
+        return students;
+    }
+
+    @Override
+    public List<Student> top(int k) {
+        read.lock();
+        try {
+            SortKeys.Smallest best = new SortKeys.Smallest(Math.min(k, rows));
+            for (int row = 0; row < rows; row++) {
+                ByteBuffer chunk = chunks.get(row >>> chunkShift);
+                int at = (row & chunkMask) * RECORD_BYTES;
+                // ~marks sorts the highest marks first, then the lower id
+                best.offer(SortKeys.of(~chunk.getInt(at + MARKS), chunk.getInt(at + ID)));
+            }
+            List<Student> top = new ArrayList<>(Math.min(k, rows));
+            for (long key : best.sorted()) {
+                top.add(student(rowOf(SortKeys.low(key))));
+            }
+            return top;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public StudentStats stats(double... percentiles) {
+        return histogram.snapshot(percentiles);
+    }
+
+    @Override
+    public int size() {
+        read.lock();
+        try {
+            return rows;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /** Bytes of record storage reserved outside the heap. */
+    public long offHeapBytes() {
+        read.lock();
+        try {
+            return (long) chunks.size() * (chunkMask + 1) * RECORD_BYTES;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    // --- writes, under the write lock
+
+    private void put(Student student, byte[] name) {
+        int row = rowOf(student.getId());
+        if (row >= 0) {
+            histogram.replace(marksAt(row), student.getMarks());
+            write(row, student, name);
+            return;
+        }
+        row = rows;
+        if ((row >>> chunkShift) == chunks.size()) {
+            chunks.add(allocate(chunks.size()));
+        }
+        write(row, student, name);
+        rows++;
+        if (rows * 2 > idTable.length) {
+            rehash();
+        }
+        insert(student.getId(), row);
+        histogram.add(student.getMarks());
+        if (sorted) {
+            if (row > 0 && idAt(rowAt(row - 1)) > student.getId()) {
+                sorted = false;
+                byId = null;
+            } else if (byId != null) {
+                if (byId.length == row) {
+                    byId = Arrays.copyOf(byId, row * 2);
+                }
+                byId[row] = row;
+            }
+        }
+    }
+
+    private void write(int row, Student student, byte[] name) {
+        ByteBuffer chunk = chunks.get(row >>> chunkShift);
+        int at = (row & chunkMask) * RECORD_BYTES;
+        chunk.putInt(at + ID, student.getId());
+        chunk.putInt(at + MARKS, student.getMarks());
+        chunk.putShort(at + NAME_LENGTH, (short) (name == null ? -1 : name.length));
+        if (name != null) {
+            chunk.put(at + NAME, name);
+        }
+    }
+
+    private ByteBuffer allocate(int index) {
+        int bytes = (chunkMask + 1) * RECORD_BYTES;
+        if (file == null) {
+            return ByteBuffer.allocateDirect(bytes);
+        }
+        try {
+            return file.map(FileChannel.MapMode.READ_WRITE, (long) index * bytes, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not map student chunk " + index, e);
+        }
+    }
+
+    private void rehash() {
+        long[] old = idTable;
+        idTable = new long[old.length * 2];
+        for (long slot : old) {
+            if (slot != 0) {
+                insert((int) (slot >> 32), (int) slot - 1);
+            }
+        }
+    }
+
+    private void insert(int id, int row) {
+        int mask = idTable.length - 1;
+        int slot = mix(id) & mask;
+        while (idTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        idTable[slot] = ((long) id << 32) | (row + 1);
+    }
+
+    // --- reads, under either lock
+
+    private int rowOf(int id) {
+        int mask = idTable.length - 1;
+        for (int slot = mix(id) & mask; idTable[slot] != 0; slot = (slot + 1) & mask) {
+            if ((int) (idTable[slot] >> 32) == id) {
+                return (int) idTable[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private int rowAt(int position) {
+        return byId == null ? position : byId[position];
+    }
+
+    private int idAt(int row) {
+        return chunks.get(row >>> chunkShift).getInt((row & chunkMask) * RECORD_BYTES + ID);
+    }
+
+    private int marksAt(int row) {
+        return chunks.get(row >>> chunkShift).getInt((row & chunkMask) * RECORD_BYTES + MARKS);
+    }
+
+    private Student student(int row) {
+        ByteBuffer chunk = chunks.get(row >>> chunkShift);
+        int at = (row & chunkMask) * RECORD_BYTES;
+        short length = chunk.getShort(at + NAME_LENGTH);
+        String name = null;
+        if (length >= 0) {
+            byte[] bytes = new byte[length];
+            chunk.get(at + NAME, bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new Student(chunk.getInt(at + ID), name, chunk.getInt(at + MARKS));
+    }
+
+    private static boolean startsWith(ByteBuffer chunk, int at, byte[] prefix) {
+        int length = chunk.getShort(at + NAME_LENGTH);
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (chunk.get(at + NAME + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // read lock held on return, with byId covering every row
+    private void lockSorted() {
+        while (true) {
+            read.lock();
+            if (sorted) {
+                return;
+            }
+            read.unlock();
+            write.lock();
+            try {
+                if (!sorted) {
+                    long[] keys = new long[rows];
+                    for (int row = 0; row < rows; row++) {
+                        keys[row] = SortKeys.of(idAt(row), row);
+                    }
+                    Arrays.sort(keys);
+                    byId = new int[Math.max(rows, 16)];
+                    for (int i = 0; i < rows; i++) {
+                        byId[i] = SortKeys.low(keys[i]);
+                    }
+                    sorted = true;
+                }
+            } finally {
+                write.unlock();
+            }
+        }
+    }
+
+    private static byte[] encode(String name) {
+        if (name == null) {
+            return null;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new InvalidStudentRequestException("name longer than " + MAX_NAME_BYTES + " UTF-8 bytes");
+        }
+        return bytes;
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
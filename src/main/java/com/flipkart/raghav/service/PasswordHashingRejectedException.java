@@ -0,0 +1,12 @@
+package com.flipkart.raghav.service;
+
+/**
+ * Thrown when the password hashing queue is full; the caller should back off
+ * and retry rather than wait.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
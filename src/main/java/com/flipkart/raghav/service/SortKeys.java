@@ -0,0 +1,84 @@
+package com.flipkart.raghav.service;
+
+import java.util.Arrays;
+
+/**
+ * Packs a sort value and a tie-breaking int (an id or a row) into one
+ * {@code long} that orders by value, then by the int, so the scanning stores
+ * can rank rows with primitive comparisons. {@code ~key} reverses the order.
+ */
+final class SortKeys {
+
+    private SortKeys() {
+    }
+
+    // the low half is sign-flipped so it orders as a signed int
+    static long of(int value, int low) {
+        return ((long) value << 32) | ((low ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    static int low(long key) {
+        return (int) key ^ Integer.MIN_VALUE;
+    }
+
+    /** The {@code k} smallest of {@code keys[0, n)} in ascending order, through a bounded max-heap. */
+    static long[] smallest(long[] keys, int n, int k) {
+        Smallest best = new Smallest(Math.min(n, k));
+        for (int i = 0; i < n; i++) {
+            best.offer(keys[i]);
+        }
+        return best.sorted();
+    }
+
+    /**
+     * Keeps the {@code k} smallest keys offered to it in a max-heap of {@code k}
+     * slots, so a scan ranks its rows in O(k) memory however many it visits.
+     */
+    static final class Smallest {
+        private final long[] heap;
+        private int size;
+
+        Smallest(int k) {
+            heap = new long[Math.max(k, 0)];
+        }
+
+        void offer(long key) {
+            if (size < heap.length) {
+                int child = size++;
+                while (child > 0) {
+                    int parent = (child - 1) >>> 1;
+                    if (heap[parent] >= key) {
+                        break;
+                    }
+                    heap[child] = heap[parent];
+                    child = parent;
+                }
+                heap[child] = key;
+            } else if (size > 0 && key < heap[0]) {
+                int parent = 0;
+                while (true) {
+                    int child = 2 * parent + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && heap[child + 1] > heap[child]) {
+                        child++;
+                    }
+                    if (heap[child] <= key) {
+                        break;
+                    }
+                    heap[parent] = heap[child];
+                    parent = child;
+                }
+                heap[parent] = key;
+            }
+        }
+
+        /** The kept keys in ascending order. */
+        long[] sorted() {
+            long[] keys = Arrays.copyOf(heap, size);
+            Arrays.sort(keys);
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.flipkart.raghav.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.flipkart.raghav.model.Student;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes every student as newline-delimited JSON, walking the store in keyset
+ * pages of {@code students.export.page-size}. Only one page is held at a time
+ * and the output is flushed after each one, so memory stays constant and a slow
+ * client simply blocks the writer.
+ */
+@Component
+public class StudentExport {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private StudentStore studentStore;
+
+    private final ObjectWriter writer;
+    private final int pageSize;
+
+    public StudentExport(ObjectMapper objectMapper, @Value("${students.export.page-size:500}") int pageSize) {
+        this.writer = objectMapper.writerFor(Student.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.pageSize = Math.max(pageSize, 1);
+    }
+
+    public long writeNdjson(OutputStream out) throws IOException {
+        long written = 0;
+        int afterId = Integer.MIN_VALUE;
+        List<Student> page;
+        // one generator for the whole response; it flushes only when told to
+        try (JsonGenerator generator = writer.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                // records are separated by the newline alone, not Jackson's default space
+                .setRootValueSeparator(null)) {
+            do {
+                page = studentStore.findPage(afterId, pageSize);
+                for (Student student : page) {
+                    writer.writeValue(generator, student);
+                    generator.writeRaw('\n');
+                    written++;
+                }
+                generator.flush();
+                out.flush();
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == pageSize);
+        }
+        return written;
+    }
+}
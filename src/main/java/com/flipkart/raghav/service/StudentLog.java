@@ -0,0 +1,540 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead log and snapshots for a heap or off-heap {@link StudentStore},
+ * kept in one directory as {@code wal-<generation>.log} and
+ * {@code snapshot-<generation>.bin} files.
+ *
+ * <p>{@link #append} only copies the record into a pending buffer. A single
+ * flusher thread writes whatever has accumulated and fsyncs it once, so every
+ * writer that arrived during the previous fsync shares the next one (group
+ * commit); {@link #awaitDurable} blocks until a record's batch is on disk.
+ *
+ * <p>A snapshot starts a new log generation and then copies the store, page by
+ * page, while writes continue. Writes racing the copy land in the new log too,
+ * and replaying upserts is idempotent, so the snapshot plus every log from its
+ * generation on rebuilds the store exactly. Older files are deleted once the
+ * snapshot is renamed into place.
+ *
+ * <p>Every record is framed as length, CRC32C and payload. Recovery stops
+ * reading a log at the first torn or corrupt record, which can only be an
+ * unacknowledged write cut off by a crash.
+ */
+@Slf4j
+public class StudentLog implements Closeable {
+
+    private static final Pattern WAL = Pattern.compile("wal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT = Pattern.compile("snapshot-(\\d+)\\.bin");
+    private static final int SNAPSHOT_MAGIC = 0x53545544;
+    private static final int END_OF_SNAPSHOT = -1;
+    private static final int REPLAY_BATCH = 10_000;
+    private static final int SNAPSHOT_PAGE = 10_000;
+
+    private final Path dir;
+    private final long snapshotEvery;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer spare = ByteBuffer.allocate(1 << 16);
+    private long appended;
+    private long durable;
+    private long fsyncs;
+    private boolean flushing;
+    private IOException failure;
+    private boolean closed;
+
+    private FileChannel channel;
+    private long generation;
+    private long sinceSnapshot;
+
+    private final Thread flusher;
+    private final ExecutorService snapshotter;
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+
+    public StudentLog(Path dir, long snapshotEvery) {
+        this.dir = dir;
+        this.snapshotEvery = snapshotEvery;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not create " + dir, e);
+        }
+        this.flusher = Thread.ofPlatform().name("student-wal-flusher").daemon().unstarted(this::flushLoop);
+        this.snapshotter = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("student-wal-snapshot").daemon().factory());
+    }
+
+    /**
+     * Loads the newest snapshot and replays every later log into {@code apply},
+     * in batches, then opens a fresh log generation. Call once, before the first
+     * append.
+     *
+     * @return how many records were replayed
+     */
+    public long recover(Consumer<List<Student>> apply) {
+        lock.lock();
+        try {
+            if (channel != null) {
+                throw new IllegalStateException("already recovered");
+            }
+            long snapshot = newest(SNAPSHOT);
+            long fromSnapshot = snapshot < 0 ? 0 : readSnapshot(dir.resolve("snapshot-" + snapshot + ".bin"), apply);
+            long fromLogs = 0;
+            List<Long> wals = generations(WAL);
+            for (long wal : wals) {
+                if (wal >= snapshot) {
+                    fromLogs += readLog(dir.resolve("wal-" + wal + ".log"), apply);
+                }
+            }
+            generation = Math.max(snapshot, wals.isEmpty() ? 0 : wals.get(wals.size() - 1)) + 1;
+            channel = open(generation);
+            sinceSnapshot = fromLogs;
+            flusher.start();
+            return fromSnapshot + fromLogs;
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not recover students from " + dir, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Throws if an append would: the log has failed a write, been closed, or was
+     * never recovered. Lets a caller refuse a write before applying it anywhere.
+     */
+    public void checkWritable() {
+        lock.lock();
+        try {
+            checkOpen();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Queues {@code student} for the log and returns its sequence number. */
+    public long append(Student student) {
+        return appendAll(List.of(student));
+    }
+
+    /** Queues every student, in order, and returns the last sequence number. */
+    public long appendAll(List<Student> students) {
+        lock.lock();
+        try {
+            checkOpen();
+            for (Student student : students) {
+                byte[] payload = encode(student);
+                ensurePending(8 + payload.length);
+                frame(pending, payload);
+            }
+            appended += students.size();
+            sinceSnapshot += students.size();
+            work.signal();
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Blocks until every record up to {@code sequence} has been fsynced. */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException("student log write failed", failure);
+                }
+                if (closed) {
+                    throw new IllegalStateException("student log closed");
+                }
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Starts a background snapshot of {@code source} once enough records have been logged since the last. */
+    public void maybeSnapshot(StudentStore source) {
+        if (sinceSnapshot() >= snapshotEvery && snapshotting.compareAndSet(false, true)) {
+            snapshotter.execute(() -> {
+                try {
+                    snapshot(source);
+                } catch (RuntimeException e) {
+                    log.warn("student snapshot failed, the log keeps growing until the next one", e);
+                } finally {
+                    snapshotting.set(false);
+                }
+            });
+        }
+    }
+
+    /** Writes a snapshot of {@code source} now and drops the files it replaces. */
+    public void snapshot(StudentStore source) {
+        long covers = rotate();
+        Path target = dir.resolve("snapshot-" + covers + ".bin");
+        Path temp = dir.resolve("snapshot-" + covers + ".tmp");
+        try {
+            writeSnapshot(temp, source);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+            for (long old : generations(SNAPSHOT)) {
+                if (old < covers) {
+                    Files.deleteIfExists(dir.resolve("snapshot-" + old + ".bin"));
+                }
+            }
+            for (long old : generations(WAL)) {
+                if (old < covers) {
+                    Files.deleteIfExists(dir.resolve("wal-" + old + ".log"));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not write " + target, e);
+        }
+    }
+
+    public long sinceSnapshot() {
+        lock.lock();
+        try {
+            return sinceSnapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Group commits fsynced by the flusher so far. */
+    public long fsyncs() {
+        lock.lock();
+        try {
+            return fsyncs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Flushes what is pending, then stops the log. */
+    @Override
+    public void close() throws IOException {
+        snapshotter.shutdown();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            if (channel != null && failure == null && pending.position() > 0) {
+                writeAndForce(pending);
+                durable = appended;
+            }
+            closed = true;
+            work.signalAll();
+            flushed.signalAll();
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // --- group commit
+
+    private void flushLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long upTo;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed) {
+                    work.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                upTo = appended;
+                flushing = true;
+            } finally {
+                lock.unlock();
+            }
+            IOException error = null;
+            try {
+                writeAndForce(batch);
+            } catch (IOException e) {
+                error = e;
+            }
+            lock.lock();
+            try {
+                flushing = false;
+                if (error != null) {
+                    failure = error;
+                    log.error("student log write failed, refusing further writes", error);
+                } else {
+                    durable = upTo;
+                    fsyncs++;
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // writes batch from 0 to its position, fsyncs, and clears it; the channel is only swapped while no flush runs
+    private void writeAndForce(ByteBuffer batch) throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        channel.force(false);
+        batch.clear();
+    }
+
+    // closes the current generation with everything queued so far and opens the next
+    private long rotate() {
+        lock.lock();
+        try {
+            checkOpen();
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            checkOpen();
+            if (pending.position() > 0) {
+                writeAndForce(pending);
+            }
+            durable = appended;
+            flushed.signalAll();
+            channel.close();
+            generation++;
+            channel = open(generation);
+            sinceSnapshot = 0;
+            return generation;
+        } catch (IOException e) {
+            failure = e;
+            flushed.signalAll();
+            throw new UncheckedIOException("could not rotate the student log", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if (failure != null) {
+            throw new UncheckedIOException("student log write failed", failure);
+        }
+        if (closed || channel == null) {
+            throw new IllegalStateException("student log is not open");
+        }
+    }
+
+    private void ensurePending(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+    }
+
+    private FileChannel open(long generation) throws IOException {
+        FileChannel opened = FileChannel.open(dir.resolve("wal-" + generation + ".log"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        syncDirectory();
+        return opened;
+    }
+
+    private void syncDirectory() {
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // not every platform can fsync a directory; the file contents are synced regardless
+        }
+    }
+
+    // --- files
+
+    private void writeSnapshot(Path temp, StudentStore source) throws IOException {
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(file), 1 << 20))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            long count = 0;
+            ByteBuffer frame = ByteBuffer.allocate(1 << 10);
+            int afterId = Integer.MIN_VALUE;
+            List<Student> page;
+            do {
+                page = source.findPage(afterId, SNAPSHOT_PAGE);
+                for (Student student : page) {
+                    byte[] payload = encode(student);
+                    if (frame.capacity() < 8 + payload.length) {
+                        frame = ByteBuffer.allocate(8 + payload.length);
+                    }
+                    frame.clear();
+                    frame(frame, payload);
+                    out.write(frame.array(), 0, frame.position());
+                    count++;
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == SNAPSHOT_PAGE);
+            out.writeInt(END_OF_SNAPSHOT);
+            out.writeLong(count);
+            out.flush();
+            file.force(true);
+        }
+    }
+
+    private static long readSnapshot(Path path, Consumer<List<Student>> apply) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 20))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException(path + " is not a student snapshot");
+            }
+            List<Student> batch = new ArrayList<>(REPLAY_BATCH);
+            long count = 0;
+            while (true) {
+                int length = in.readInt();
+                if (length == END_OF_SNAPSHOT) {
+                    break;
+                }
+                Student student = readFrame(in, length);
+                if (student == null) {
+                    throw new IOException(path + " has a corrupt record at " + count);
+                }
+                batch.add(student);
+                count++;
+                if (batch.size() == REPLAY_BATCH) {
+                    apply.accept(batch);
+                    batch = new ArrayList<>(REPLAY_BATCH);
+                }
+            }
+            if (in.readLong() != count) {
+                throw new IOException(path + " is incomplete");
+            }
+            if (!batch.isEmpty()) {
+                apply.accept(batch);
+            }
+            return count;
+        } catch (EOFException e) {
+            // snapshots are renamed into place only once complete, so this is damage, not a crash
+            throw new IOException(path + " is truncated", e);
+        }
+    }
+
+    private static long readLog(Path path, Consumer<List<Student>> apply) throws IOException {
+        long count = 0;
+        List<Student> batch = new ArrayList<>(REPLAY_BATCH);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 20))) {
+            while (true) {
+                Student student = readFrame(in, in.readInt());
+                if (student == null) {
+                    log.warn("{} ends in a torn or corrupt record after {} records; ignoring the rest", path, count);
+                    break;
+                }
+                batch.add(student);
+                count++;
+                if (batch.size() == REPLAY_BATCH) {
+                    apply.accept(batch);
+                    batch = new ArrayList<>(REPLAY_BATCH);
+                }
+            }
+        } catch (EOFException e) {
+            // clean end of the log, or a frame cut short by a crash
+        }
+        if (!batch.isEmpty()) {
+            apply.accept(batch);
+        }
+        return count;
+    }
+
+    // null when the frame is implausible or fails its checksum
+    private static Student readFrame(DataInputStream in, int length) throws IOException {
+        if (length < 12 || length > (1 << 20)) {
+            return null;
+        }
+        int crc = in.readInt();
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        CRC32C check = new CRC32C();
+        check.update(payload);
+        if ((int) check.getValue() != crc) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        int id = buffer.getInt();
+        int marks = buffer.getInt();
+        int nameLength = buffer.getInt();
+        String name = nameLength < 0 ? null
+                : new String(payload, buffer.position(), nameLength, StandardCharsets.UTF_8);
+        return new Student(id, name, marks);
+    }
+
+    // id, marks, name length (-1 for null) and UTF-8 name
+    private static byte[] encode(Student student) {
+        byte[] name = student.getName() == null ? null : student.getName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(12 + (name == null ? 0 : name.length));
+        payload.putInt(student.getId()).putInt(student.getMarks()).putInt(name == null ? -1 : name.length);
+        if (name != null) {
+            payload.put(name);
+        }
+        return payload.array();
+    }
+
+    private static void frame(ByteBuffer target, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        target.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+    }
+
+    private long newest(Pattern pattern) throws IOException {
+        List<Long> all = generations(pattern);
+        return all.isEmpty() ? -1 : all.get(all.size() - 1);
+    }
+
+    private List<Long> generations(Pattern pattern) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> pattern.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
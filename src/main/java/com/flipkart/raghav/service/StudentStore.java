@@ -0,0 +1,40 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+
+import java.util.List;
+
+/**
+ * Students keyed by id. Implementations are safe for concurrent use from
+ * request threads; {@code students.store} picks one ({@code jpa} by default).
+ */
+public interface StudentStore {
+
+    /** Inserts the student, or replaces the one with the same id. */
+    Student save(Student student);
+
+    /** {@link #save} for many students at once, written in batches. */
+    List<Student> saveAll(List<Student> students);
+
+    /** The student with this id, or {@code null}. */
+    Student findById(int id);
+
+    /** Up to {@code limit} students with ids greater than {@code afterId}, ordered by id. */
+    List<Student> findPage(int afterId, int limit);
+
+    /** Students matching the query's filters, in its order, at most {@code limit} of them. */
+    List<Student> query(StudentQuery query);
+
+    /**
+     * The {@code k} students with the highest marks; equal marks rank the lower
+     * id first.
+     */
+    List<Student> top(int k);
+
+    /** Marks statistics from running aggregates; never scans the students. */
+    StudentStats stats(double... percentiles);
+
+    int size();
+}
@@ -0,0 +1,121 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.repository.UserRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Remembers usernames that do not exist so repeated attempts with them are
+ * rejected without a database query.
+ *
+ * <p>Misses are cached for {@code auth.unknown-users.ttl}. Setting
+ * {@code auth.unknown-users.bloom.expected-users} additionally builds a Bloom
+ * filter of every username at startup; once loaded, names it has never seen are
+ * rejected outright. Registrations made through this node are added straight
+ * away, but the filter does not see users created elsewhere, so only enable it
+ * where every registration goes through this service.
+ *
+ * <p>A lookup that raced a registration can report the name missing after the
+ * registration already cleared it. Names registered through this node are
+ * remembered for the same TTL and never recorded as missing, and the check and
+ * the write happen atomically against {@link #recordRegistered}.
+ */
+@Component
+public class UnknownUsernames {
+
+    private final UserRepo userRepo;
+    private final Cache<String, Boolean> missing;
+    private final Cache<String, Boolean> recentlyRegistered;
+    private final UsernameBloomFilter knownUsers;
+    private volatile boolean knownUsersLoaded;
+
+    /** A no-op instance: remembers nothing and rejects nothing. */
+    public UnknownUsernames() {
+        this.userRepo = null;
+        this.missing = null;
+        this.recentlyRegistered = null;
+        this.knownUsers = null;
+    }
+
+    /** Without a repository, so the Bloom filter is only filled through {@link #load}. */
+    public UnknownUsernames(long maxSize, Duration ttl, long expectedUsers, double falsePositiveRate,
+                            MeterRegistry meterRegistry) {
+        this(maxSize, ttl, expectedUsers, falsePositiveRate, meterRegistry, null);
+    }
+
+    @Autowired
+    public UnknownUsernames(@Value("${auth.unknown-users.max-size:100000}") long maxSize,
+                            @Value("${auth.unknown-users.ttl:30s}") Duration ttl,
+                            @Value("${auth.unknown-users.bloom.expected-users:0}") long expectedUsers,
+                            @Value("${auth.unknown-users.bloom.fpp:0.01}") double falsePositiveRate,
+                            MeterRegistry meterRegistry, UserRepo userRepo) {
+        this.userRepo = userRepo;
+        this.missing = maxSize > 0 && !ttl.isZero()
+                ? Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build()
+                : null;
+        this.recentlyRegistered = missing != null
+                ? Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build()
+                : null;
+        if (missing != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, missing, "auth.unknown-users");
+        }
+        this.knownUsers = expectedUsers > 0 ? new UsernameBloomFilter(expectedUsers, falsePositiveRate) : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (knownUsers != null && userRepo != null) {
+            load(userRepo.findAllUsernames());
+        }
+    }
+
+    public void load(Iterable<String> usernames) {
+        if (knownUsers == null) {
+            return;
+        }
+        for (String username : usernames) {
+            knownUsers.put(username);
+        }
+        knownUsersLoaded = true;
+    }
+
+    public boolean isKnownMissing(String username) {
+        if (username == null) {
+            return false;
+        }
+        if (missing != null && missing.getIfPresent(username) != null) {
+            return true;
+        }
+        return knownUsersLoaded && !knownUsers.mightContain(username);
+    }
+
+    public void recordMissing(String username) {
+        if (missing != null && username != null) {
+            missing.asMap().compute(username, (name, present) ->
+                    recentlyRegistered.getIfPresent(name) != null ? present : Boolean.TRUE);
+        }
+    }
+
+    public void recordRegistered(String username) {
+        if (username == null) {
+            return;
+        }
+        if (knownUsers != null) {
+            knownUsers.put(username);
+        }
+        if (missing != null) {
+            // before the invalidate, so a recordMissing that runs after it sees the registration
+            recentlyRegistered.put(username, Boolean.TRUE);
+            missing.invalidate(username);
+        }
+    }
+}
@@ -1,35 +1,83 @@
 package com.flipkart.raghav.service;
 
+import com.flipkart.raghav.model.PasswordChange;
 import com.flipkart.raghav.model.Users;
 import com.flipkart.raghav.repository.UserRepo;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService {
-    @Autowired
-    private UserRepo userRepo;
+    private final UserRepo userRepo;
+    private final JWTService jwtService;
+    private final AuthenticationManager authenticationManager;
+    private final UserVersions userVersions;
+    private final UserCache userCache;
+    private final UnknownUsernames unknownUsernames;
+    private final PasswordEncoder encoder;
 
-    @Autowired
-    private JWTService jwtService;
-
-    @Autowired
-    private AuthenticationManager authenticationManager;
+    public UserService(UserRepo userRepo, JWTService jwtService, AuthenticationManager authenticationManager,
+                       UserVersions userVersions, UserCache userCache, UnknownUsernames unknownUsernames,
+                       PasswordEncoder encoder) {
+        this.userRepo = userRepo;
+        this.jwtService = jwtService;
+        this.authenticationManager = authenticationManager;
+        this.userVersions = userVersions;
+        this.userCache = userCache;
+        this.unknownUsernames = unknownUsernames;
+        this.encoder = encoder;
+    }
 
-    private BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
+    // one read-write transaction so the existing-user lookup reads the primary, not a lagging replica
+    @Transactional
     public Users register(Users user){
+        if (userRepo.findByUsername(user.getUsername()) != null) {
+            throw new UsernameTakenException(user.getUsername());
+        }
         user.setPassword(encoder.encode(user.getPassword()));
-        return userRepo.save(user);
+        // ids come from users_seq, never from the client
+        user.setId(0);
+        Users saved;
+        try {
+            // flush now so a concurrent registration of the same name fails here, not at commit
+            saved = userRepo.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new UsernameTakenException(user.getUsername());
+        }
+        unknownUsernames.recordRegistered(user.getUsername());
+        return saved;
+    }
+
+    // bumps the token version so tokens issued before the change stop working
+    @Transactional
+    public void changePassword(String username, PasswordChange change) {
+        Users user = userRepo.findByUsername(username);
+        if (user == null || change.currentPassword() == null
+                || !encoder.matches(change.currentPassword(), user.getPassword())) {
+            throw new BadCredentialsException("Current password does not match");
+        }
+        user.setPassword(encoder.encode(change.newPassword()));
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepo.save(user);
+        userVersions.record(username, user.getTokenVersion());
+        userCache.removeUserFromCache(username);
     }
 
     public String verify(Users user) {
         Authentication authentication= authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(user.getUsername(),user.getPassword()));
 
         if(authentication.isAuthenticated()){
+            if (authentication.getPrincipal() instanceof UserDetails userDetails) {
+                return jwtService.generateClaimsToken(userDetails);
+            }
             return jwtService.generateToken(user.getUsername());
         }else{
             return "fail";
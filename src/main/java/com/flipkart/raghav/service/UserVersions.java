@@ -0,0 +1,28 @@
+package com.flipkart.raghav.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest token version this node has seen written for each user. Claims-only
+ * authentication trusts a token unless its version is older than the one
+ * recorded here, in which case the database has the final say.
+ */
+@Component
+public class UserVersions {
+
+    private final Map<String, Integer> latest = new ConcurrentHashMap<>();
+
+    public void record(String username, int version) {
+        if (username != null) {
+            latest.merge(username, version, Math::max);
+        }
+    }
+
+    public boolean isStale(String username, int tokenVersion) {
+        Integer known = latest.get(username);
+        return known != null && tokenVersion < known;
+    }
+}
@@ -0,0 +1,12 @@
+package com.flipkart.raghav.service;
+
+/**
+ * Thrown when registering a username that already exists; changing an existing
+ * user's password goes through {@code PUT /password} instead.
+ */
+public class UsernameTakenException extends RuntimeException {
+
+    public UsernameTakenException(String username) {
+        super("Username is already taken: " + username);
+    }
+}
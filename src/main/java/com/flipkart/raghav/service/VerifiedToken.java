@@ -0,0 +1,42 @@
+package com.flipkart.raghav.service;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A token whose signature has already been checked, so the subject, expiry
+ * and claims can be read without parsing it again. {@code keyId} is the kid
+ * it was verified with, so a cached copy can be dropped once that key is retired.
+ */
+public record VerifiedToken(String subject, Date expiration, Map<String, Object> claims, String keyId) {
+
+    public static VerifiedToken of(Claims claims) {
+        return of(null, claims);
+    }
+
+    public static VerifiedToken of(String keyId, Claims claims) {
+        return new VerifiedToken(claims.getSubject(), claims.getExpiration(), claims, keyId);
+    }
+
+    public List<String> roles() {
+        return claims.get(JWTService.ROLES_CLAIM) instanceof List<?> roles
+                ? roles.stream().map(String::valueOf).toList()
+                : null;
+    }
+
+    public Integer userVersion() {
+        return claims.get(JWTService.VERSION_CLAIM) instanceof Number version ? version.intValue() : null;
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+
+    public boolean isValidFor(UserDetails userDetails) {
+        return subject.equals(userDetails.getUsername()) && !isExpired();
+    }
+}
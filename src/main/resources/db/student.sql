@@ -0,0 +1,18 @@
+-- The student table behind students.store=jpa, for databases not managed by
+-- ddl-auto. Safe to rerun. Apply it once before switching the store, or let
+-- Spring run it at startup with:
+--   spring.sql.init.mode=always
+--   spring.sql.init.schema-locations=classpath:db/student.sql
+create table if not exists student (
+    id integer not null,
+    name varchar(255),
+    marks integer not null,
+    primary key (id)
+);
+-- range scans and ordering for /students/search
+create index if not exists ix_student_marks_id on student (marks, id);
+create index if not exists ix_student_name_id on student (name, id);
+-- /students/top: marks descending, ids ascending
+create index if not exists ix_student_top on student (marks desc, id);
+-- the students the memory store starts with
+insert into student (id, name, marks) values (1, 'Navin', 60), (2, 'Kiran', 70) on conflict do nothing;
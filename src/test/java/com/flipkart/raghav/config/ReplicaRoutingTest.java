@@ -0,0 +1,165 @@
+package com.flipkart.raghav.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes between in-memory H2 databases standing in for the primary and the
+ * replicas; each one answers {@code select name from node} with its own name.
+ */
+@DisplayName("Replica Routing Tests")
+class ReplicaRoutingTest {
+
+    private DataSource primary;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(32))");
+        jdbc.update("insert into node values (?)", name);
+        return dataSource;
+    }
+
+    private static DataSource unreachable() {
+        return new DriverManagerDataSource("jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE", "sa", "");
+    }
+
+    private static String node(DataSource routing, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(routing).queryForObject("select name from node", String.class));
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to the replica and writes to the primary")
+    void testRoutesByReadOnlyFlag() {
+        DataSource routing = DataSourceConfig.routing(primary, List.of(database("replica")), Duration.ofSeconds(30));
+
+        assertEquals("replica", node(routing, true));
+        assertEquals("primary", node(routing, false));
+    }
+
+    @Test
+    @DisplayName("Should use the primary for everything without replicas")
+    void testNoReplicas() {
+        DataSource routing = DataSourceConfig.routing(primary, List.of(), Duration.ofSeconds(30));
+
+        assertEquals("primary", node(routing, true));
+        assertEquals("primary", node(routing, false));
+    }
+
+    @Test
+    @DisplayName("Should spread reads across replicas in turn")
+    void testRoundRobin() {
+        DataSource routing = DataSourceConfig.routing(primary,
+                List.of(database("replica-a"), database("replica-b")), Duration.ofSeconds(30));
+
+        assertEquals(List.of("replica-a", "replica-b", "replica-a"),
+                List.of(node(routing, true), node(routing, true), node(routing, true)));
+    }
+
+    @Test
+    @DisplayName("Should skip an unreachable replica")
+    void testSkipsUnreachableReplica() {
+        DataSource routing = DataSourceConfig.routing(primary,
+                List.of(unreachable(), database("replica")), Duration.ofSeconds(30));
+
+        assertEquals("replica", node(routing, true));
+        assertEquals("replica", node(routing, true));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when no replica is reachable")
+    void testFallsBackToPrimary() {
+        DataSource routing = DataSourceConfig.routing(primary, List.of(unreachable()), Duration.ofSeconds(30));
+
+        assertEquals("primary", node(routing, true));
+    }
+
+    @Test
+    @DisplayName("Should retry a failed replica only once the retry delay has passed")
+    void testRetriesReplicaAfterDelay() {
+        DataSource soon = DataSourceConfig.routing(primary, List.of(failingOnce(database("replica"))), Duration.ZERO);
+        DataSource later = DataSourceConfig.routing(primary, List.of(failingOnce(database("replica"))), Duration.ofHours(1));
+
+        assertEquals("primary", node(soon, true));
+        assertEquals("replica", node(soon, true));
+        assertEquals("primary", node(later, true));
+        assertEquals("primary", node(later, true));
+    }
+
+    private static DataSource failingOnce(DataSource target) {
+        AtomicBoolean failed = new AtomicBoolean();
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (failed.compareAndSet(false, true)) {
+                    throw new SQLException("replica down");
+                }
+                return super.getConnection();
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Should pass explicit credentials through to the replica")
+    void testExplicitCredentials() throws SQLException {
+        ReplicaDataSource replicas = new ReplicaDataSource(List.of(database("replica")), primary, Duration.ofSeconds(30));
+
+        try (Connection connection = replicas.getConnection("sa", "")) {
+            assertTrue(connection.isValid(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply spring.datasource.hikari settings to every replica pool")
+    void testReplicasInheritHikariSettings() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:primary");
+        properties.setUsername("sa");
+        properties.setPassword("");
+        properties.setDriverClassName("org.h2.Driver");
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "3")
+                .withProperty("spring.datasource.hikari.connection-timeout", "1500");
+
+        List<DataSource> replicas = DataSourceConfig.replicas(properties, Binder.get(environment),
+                List.of("jdbc:h2:mem:a", " jdbc:h2:mem:b", ""));
+
+        assertEquals(2, replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            HikariDataSource replica = (HikariDataSource) replicas.get(i);
+            assertEquals(3, replica.getMaximumPoolSize());
+            assertEquals(1500, replica.getConnectionTimeout());
+            assertEquals("HikariPool-replica-" + i, replica.getPoolName());
+        }
+        assertEquals("jdbc:h2:mem:b", ((HikariDataSource) replicas.get(1)).getJdbcUrl());
+    }
+}
@@ -0,0 +1,67 @@
+package com.flipkart.raghav.config;
+
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.service.InMemoryStudentStore;
+import com.flipkart.raghav.service.LoggedStudentStore;
+import com.flipkart.raghav.service.OffHeapStudentStore;
+import com.flipkart.raghav.service.StudentStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("StudentLogConfig Tests")
+class StudentLogConfigTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should log writes through StudentStore and still close the concrete store")
+    void testComposesLoggedStore() throws Exception {
+        // Arrange
+        OffHeapStudentStore offHeap = spy(new OffHeapStudentStore(16, ""));
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withPropertyValues("students.store=offheap", "students.wal.dir=" + dir)
+                .withBean(OffHeapStudentStore.class, () -> offHeap)
+                .withUserConfiguration(StudentLogConfig.class);
+
+        // Act
+        runner.run(context -> {
+            StudentStore store = context.getBean(StudentStore.class);
+            store.save(new Student(1, "a", 50));
+
+            // Assert
+            assertInstanceOf(LoggedStudentStore.class, store);
+            assertSame(offHeap, context.getBean(OffHeapStudentStore.class));
+            assertEquals(new Student(1, "a", 50), offHeap.findById(1));
+        });
+
+        // Assert
+        verify(offHeap).close();
+    }
+
+    @Test
+    @DisplayName("Should log writes to the default memory store")
+    void testWrapsDefaultStore() {
+        new ApplicationContextRunner()
+                .withPropertyValues("students.wal.dir=" + dir)
+                .withBean(InMemoryStudentStore.class, InMemoryStudentStore::new)
+                .withUserConfiguration(StudentLogConfig.class)
+                .run(context -> assertInstanceOf(LoggedStudentStore.class, context.getBean(StudentStore.class)));
+    }
+
+    @Test
+    @DisplayName("Should leave the jpa store unwrapped")
+    void testSkipsJpaStore() {
+        new ApplicationContextRunner()
+                .withPropertyValues("students.store=jpa", "students.wal.dir=" + dir)
+                .withUserConfiguration(StudentLogConfig.class)
+                .run(context -> assertTrue(context.getBeansOfType(LoggedStudentStore.class).isEmpty()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.flipkart.raghav.controller;
+
+import com.flipkart.raghav.config.SecurityConfig;
+import com.flipkart.raghav.service.JWTService;
+import com.flipkart.raghav.service.JwtKeyRing;
+import com.flipkart.raghav.service.UserVersions;
+import com.flipkart.raghav.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The real security chain and token verification for web slice tests, so a
+ * request carrying a bearer token goes through {@code JwtFilter} as it does in
+ * the application. The user lookup behind it is left for each test to mock.
+ */
+@TestConfiguration
+@Import({SecurityConfig.class, JwtKeyRing.class, JWTService.class, VerifiedTokenCache.class, UserVersions.class})
+class JwtTestConfig {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,74 @@
+package com.flipkart.raghav.controller;
+
+import com.flipkart.raghav.model.UserPrincipal;
+import com.flipkart.raghav.model.Users;
+import com.flipkart.raghav.service.InMemoryStudentStore;
+import com.flipkart.raghav.service.JWTService;
+import com.flipkart.raghav.service.MyUserDetailsService;
+import com.flipkart.raghav.service.StudentExport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = StudentController.class,
+        properties = {"auth.password.calibrate=false", "students.store=memory"})
+@Import({JwtTestConfig.class, InMemoryStudentStore.class, StudentExport.class})
+@DisplayName("StudentController Tests")
+class StudentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @MockitoBean
+    private MyUserDetailsService userDetailsService;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        when(userDetailsService.loadUserByUsername("kiran"))
+                .thenReturn(new UserPrincipal(new Users(1, "kiran", "hash")));
+        token = jwtService.generateToken("kiran");
+    }
+
+    @Test
+    @DisplayName("Should stream every student as NDJSON through the async dispatch")
+    void testStreamStudentsAuthenticated() throws Exception {
+        // Act
+        MvcResult started = mockMvc.perform(get("/students")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(StudentExport.NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(StudentExport.NDJSON))
+                .andExpect(content().string("{\"id\":1,\"name\":\"Navin\",\"marks\":60}\n"
+                        + "{\"id\":2,\"name\":\"Kiran\",\"marks\":70}\n"));
+    }
+
+    @Test
+    @DisplayName("Should reject the NDJSON export without a token")
+    void testStreamStudentsRequiresToken() throws Exception {
+        mockMvc.perform(get("/students").accept(StudentExport.NDJSON))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,113 @@
+package com.flipkart.raghav.controller;
+
+import com.flipkart.raghav.model.PasswordChange;
+import com.flipkart.raghav.model.UserPrincipal;
+import com.flipkart.raghav.model.Users;
+import com.flipkart.raghav.service.BulkRegistrationService;
+import com.flipkart.raghav.service.JWTService;
+import com.flipkart.raghav.service.MyUserDetailsService;
+import com.flipkart.raghav.service.PasswordHashingExecutor;
+import com.flipkart.raghav.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = UserController.class, properties = "auth.password.calibrate=false")
+@Import({JwtTestConfig.class, PasswordHashingExecutor.class})
+@DisplayName("UserController Tests")
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private MyUserDetailsService userDetailsService;
+
+    @MockitoBean
+    private BulkRegistrationService bulkRegistrationService;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        when(userDetailsService.loadUserByUsername("kiran"))
+                .thenReturn(new UserPrincipal(new Users(1, "kiran", "hash")));
+        token = jwtService.generateToken("kiran");
+    }
+
+    private MvcResult changePassword(String body) throws Exception {
+        return mockMvc.perform(put("/password")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    @Test
+    @DisplayName("Should answer a password change with 204 once the async dispatch completes")
+    void testChangePasswordCompletesAuthenticated() throws Exception {
+        // Act
+        MvcResult started = changePassword("{\"currentPassword\":\"old\",\"newPassword\":\"new\"}");
+
+        // Assert
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isNoContent());
+        verify(userService, times(1)).changePassword(eq("kiran"), eq(new PasswordChange("old", "new")));
+    }
+
+    @Test
+    @DisplayName("Should answer a wrong current password with 401 after the async dispatch")
+    void testChangePasswordWrongCurrentPassword() throws Exception {
+        // Arrange
+        doThrow(new BadCredentialsException("Current password does not match"))
+                .when(userService).changePassword(eq("kiran"), any(PasswordChange.class));
+
+        // Act
+        MvcResult started = changePassword("{\"currentPassword\":\"guess\",\"newPassword\":\"new\"}");
+
+        // Assert
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Should answer a password change without a new password with 400")
+    void testChangePasswordRequiresNewPassword() throws Exception {
+        // Act
+        MvcResult started = changePassword("{\"currentPassword\":\"old\",\"newPassword\":\"\"}");
+
+        // Assert
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isBadRequest());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should reject a password change without a token")
+    void testChangePasswordRequiresToken() throws Exception {
+        mockMvc.perform(put("/password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPassword\":\"old\",\"newPassword\":\"new\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -226,4 +226,28 @@ class UserPrincipalTest {
         assertNotEquals(principal1.getPassword(), principal2.getPassword());
         assertEquals(principal1.getAuthorities().size(), principal2.getAuthorities().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should build principal from token claims")
+    void testFromClaims() {
+        UserPrincipal principal = UserPrincipal.fromClaims("testuser", java.util.List.of("USER", "ADMIN"), 4);
+
+        assertEquals("testuser", principal.getUsername());
+        assertNull(principal.getPassword());
+        assertEquals(4, principal.getTokenVersion());
+        assertEquals(2, principal.getAuthorities().size());
+        assertEquals("ADMIN", principal.getAuthorities().stream().skip(1).findFirst().orElseThrow().getAuthority());
+    }
+
+    @Test
+    @DisplayName("Should copy the principal with a new password")
+    void testWithPassword() {
+        UserPrincipal updated = userPrincipal.withPassword("{bcrypt}newhash");
+
+        assertEquals("{bcrypt}newhash", updated.getPassword());
+        assertEquals(userPrincipal.getUsername(), updated.getUsername());
+        assertEquals(userPrincipal.getTokenVersion(), updated.getTokenVersion());
+        assertSame(userPrincipal.getAuthorities(), updated.getAuthorities());
+        assertNotEquals("{bcrypt}newhash", userPrincipal.getPassword());
+    }
+}
@@ -130,7 +130,7 @@ class UsersTest {
     @Test
     @DisplayName("Should return meaningful string representation")
     void testToString() {
-        String expected = "Users(id=1, username=john_doe, password=password123)";
+        String expected = "Users(id=1, username=john_doe, password=password123, tokenVersion=0)";
         assertEquals(expected, user1.toString());
     }
 
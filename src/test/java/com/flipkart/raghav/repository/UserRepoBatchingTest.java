@@ -0,0 +1,82 @@
+package com.flipkart.raghav.repository;
+
+import com.flipkart.raghav.model.Users;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the statements Hibernate prepares to insert N users against an
+ * in-memory H2 database: with batching and pooled ids it should be about
+ * N / batch size inserts plus N / increment size sequence calls.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.raghav.id.increment-size=50"
+})
+@DisplayName("UserRepo Batching Tests")
+class UserRepoBatchingTest {
+
+    private static final int USERS = 500;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private long statementsToInsert(String prefix) {
+        List<Users> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Users(0, prefix + i, "password"));
+        }
+        statistics.clear();
+        userRepo.saveAll(users);
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("Should generate ids from the sequence in blocks")
+    void testIdsAreGenerated() {
+        List<Users> saved = userRepo.saveAll(List.of(new Users(0, "a", "p"), new Users(0, "b", "p")));
+
+        assertTrue(saved.get(0).getId() > 0);
+        assertEquals(saved.get(0).getId() + 1, saved.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Should insert N users with about N / batch size statements")
+    void testInsertsAreBatched() {
+        // Act
+        long batched = statementsToInsert("batched");
+        entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+        long unbatched = statementsToInsert("unbatched");
+
+        // Assert
+        long expected = USERS / 50 + USERS / 50 + 1;
+        assertTrue(batched <= expected, "batched statements: " + batched);
+        assertTrue(unbatched >= USERS, "unbatched statements: " + unbatched);
+        assertEquals(USERS * 2L, userRepo.count());
+    }
+}
@@ -0,0 +1,131 @@
+package com.flipkart.raghav.repository;
+
+import com.flipkart.raghav.model.UserCredentials;
+import com.flipkart.raghav.model.Users;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without a surrounding test transaction so writes commit and reach the
+ * second-level cache the way they do in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("UserRepo Query Tests")
+class UserRepoQueryTest {
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Users saved;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        saved = userRepo.save(new Users(0, "john_doe", "hash", 3));
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepo.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should read credentials by username")
+    void testFindCredentialsByUsername() {
+        assertEquals(new UserCredentials(saved.getId(), "john_doe", "hash", 3),
+                userRepo.findCredentialsByUsername("john_doe"));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated entity lookups from the second-level cache")
+    void testLookupsAreCached() {
+        // Act
+        userRepo.findByUsername("john_doe");
+        userRepo.findByUsername("john_doe");
+
+        // Assert
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getNaturalIdCacheHitCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("Should serve repeated credential lookups from the query cache without loading the entity")
+    void testCredentialsAreCachedWithoutEntity() {
+        // Arrange
+        userRepo.findCredentialsByUsername("john_doe");
+        statistics.clear();
+
+        // Act
+        UserCredentials credentials = userRepo.findCredentialsByUsername("john_doe");
+
+        // Assert
+        assertEquals(new UserCredentials(saved.getId(), "john_doe", "hash", 3), credentials);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(Users.class.getName()).getCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("Should see a changed password")
+    void testSaveUpdatesCache() {
+        // Arrange
+        userRepo.findCredentialsByUsername("john_doe");
+
+        // Act
+        userRepo.save(new Users(saved.getId(), "john_doe", "new-hash", 4));
+
+        // Assert
+        UserCredentials credentials = userRepo.findCredentialsByUsername("john_doe");
+        assertEquals("new-hash", credentials.password());
+        assertEquals(4, credentials.tokenVersion());
+    }
+
+    @Test
+    @DisplayName("Should see a password changed by a bulk update")
+    void testUpdatePasswordEvictsCache() {
+        // Arrange
+        userRepo.findCredentialsByUsername("john_doe");
+
+        // Act
+        userRepo.updatePassword("john_doe", "rehashed");
+
+        // Assert
+        assertEquals("rehashed", userRepo.findCredentialsByUsername("john_doe").password());
+    }
+
+    @Test
+    @DisplayName("Should return null for an unknown or null username")
+    void testFindCredentialsByUnknownUsername() {
+        assertNull(userRepo.findCredentialsByUsername("nobody"));
+        assertNull(userRepo.findCredentialsOnPrimary("nobody"));
+        assertEquals("john_doe", userRepo.findCredentialsOnPrimary("john_doe").username());
+        assertNull(userRepo.findByUsername(null));
+    }
+
+    @Test
+    @DisplayName("Should reject a duplicate username")
+    void testUsernameIsUnique() {
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepo.saveAndFlush(new Users(0, "john_doe", "other")));
+    }
+}
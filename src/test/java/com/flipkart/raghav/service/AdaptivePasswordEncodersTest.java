@@ -0,0 +1,97 @@
+package com.flipkart.raghav.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AdaptivePasswordEncoders Tests")
+class AdaptivePasswordEncodersTest {
+
+    @Test
+    @DisplayName("Should add one BCrypt cost step per doubling of the target latency")
+    void testBcryptStrength() {
+        assertEquals(10, AdaptivePasswordEncoders.bcryptStrength(Duration.ofMillis(50), Duration.ofMillis(60)));
+        assertEquals(10, AdaptivePasswordEncoders.bcryptStrength(Duration.ofMillis(60), Duration.ofMillis(60)));
+        assertEquals(12, AdaptivePasswordEncoders.bcryptStrength(Duration.ofMillis(250), Duration.ofMillis(60)));
+        assertEquals(13, AdaptivePasswordEncoders.bcryptStrength(Duration.ofMillis(250), Duration.ofMillis(30)));
+        assertEquals(20, AdaptivePasswordEncoders.bcryptStrength(Duration.ofSeconds(100), Duration.ofMillis(1)));
+    }
+
+    @Test
+    @DisplayName("Should scale Argon2 iterations linearly within bounds")
+    void testArgon2Iterations() {
+        assertEquals(2, AdaptivePasswordEncoders.argon2Iterations(Duration.ofMillis(10), Duration.ofMillis(40)));
+        assertEquals(10, AdaptivePasswordEncoders.argon2Iterations(Duration.ofMillis(200), Duration.ofMillis(40)));
+        assertEquals(64, AdaptivePasswordEncoders.argon2Iterations(Duration.ofSeconds(60), Duration.ofMillis(1)));
+    }
+
+    @Test
+    @DisplayName("Should write prefixed hashes with the default encoder")
+    void testEncodeWithPrefix() {
+        PasswordEncoder encoder = AdaptivePasswordEncoders.create("bcrypt", null);
+
+        String hash = encoder.encode("password123");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$12$"));
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    @DisplayName("Should match legacy unprefixed BCrypt hashes and flag them for upgrade")
+    void testLegacyHash() {
+        PasswordEncoder encoder = AdaptivePasswordEncoders.create("bcrypt", null);
+        String legacy = new BCryptPasswordEncoder(12).encode("password123");
+
+        assertTrue(encoder.matches("password123", legacy));
+        assertFalse(encoder.matches("wrong", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    @DisplayName("Should flag BCrypt hashes below the configured cost for upgrade")
+    void testWeakerBcryptNeedsUpgrade() {
+        PasswordEncoder encoder = AdaptivePasswordEncoders.create("bcrypt", null);
+        String weak = "{bcrypt}" + new BCryptPasswordEncoder(10).encode("password123");
+
+        assertTrue(encoder.matches("password123", weak));
+        assertTrue(encoder.upgradeEncoding(weak));
+    }
+
+    @Test
+    @DisplayName("Should keep verifying BCrypt hashes after switching to Argon2")
+    void testSwitchToArgon2() {
+        String bcrypt = AdaptivePasswordEncoders.create("bcrypt", null).encode("password123");
+        PasswordEncoder encoder = AdaptivePasswordEncoders.create("argon2", null);
+
+        String argon2 = encoder.encode("password123");
+
+        assertTrue(argon2.startsWith("{argon2}"));
+        assertTrue(encoder.matches("password123", argon2));
+        assertTrue(encoder.matches("password123", bcrypt));
+        assertTrue(encoder.upgradeEncoding(bcrypt));
+        assertFalse(encoder.upgradeEncoding(argon2));
+    }
+
+    @Test
+    @DisplayName("Should round-trip PBKDF2 hashes")
+    void testPbkdf2() {
+        PasswordEncoder encoder = AdaptivePasswordEncoders.create("pbkdf2", null);
+
+        String hash = encoder.encode("password123");
+
+        assertTrue(hash.startsWith("{pbkdf2}"));
+        assertTrue(encoder.matches("password123", hash));
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown encoder id")
+    void testUnknownEncoderId() {
+        assertThrows(IllegalArgumentException.class, () -> AdaptivePasswordEncoders.create("md5", null));
+    }
+}
@@ -0,0 +1,203 @@
+package com.flipkart.raghav.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flipkart.raghav.model.Users;
+import com.flipkart.raghav.repository.UserRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BulkRegistrationService Tests")
+class BulkRegistrationServiceTest {
+
+    @Mock
+    private UserRepo userRepo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BulkRegistrationService bulkRegistrationService;
+    private BCryptPasswordEncoder encoder;
+    private PasswordHashingExecutor hashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new BCryptPasswordEncoder(4);
+        hashingExecutor = new PasswordHashingExecutor(2, 1, new SimpleMeterRegistry());
+        bulkRegistrationService = new BulkRegistrationService(new ObjectMapper(), userRepo, transactionManager,
+                encoder, new UnknownUsernames(), hashingExecutor, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should save users in chunks of the configured size")
+    @SuppressWarnings("unchecked")
+    void testSavesByChunkSize() throws Exception {
+        // Arrange
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(userRepo.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            chunkSizes.add(((List<Users>) invocation.getArgument(0)).size());
+            return invocation.getArgument(0);
+        });
+
+        // Act
+        BulkRegistrationResult result = bulkRegistrationService.register(json("""
+                [{"id":1,"username":"u1","password":"p1"},
+                 {"id":2,"username":"u2","password":"p2"},
+                 {"id":3,"username":"u3","password":"p3"},
+                 {"id":4,"username":"u4","password":"p4"},
+                 {"id":5,"username":"u5","password":"p5"}]
+                """));
+
+        // Assert
+        assertEquals(5, result.created());
+        assertEquals(0, result.failed());
+        assertTrue(result.failures().isEmpty());
+        assertEquals(List.of(2, 2, 1), chunkSizes);
+    }
+
+    @Test
+    @DisplayName("Should hash passwords and drop client ids before saving")
+    @SuppressWarnings("unchecked")
+    void testPasswordsAreHashed() throws Exception {
+        // Act
+        bulkRegistrationService.register(json("[{\"id\":7,\"username\":\"u7\",\"password\":\"secret\"}]"));
+
+        // Assert
+        ArgumentCaptor<List<Users>> batch = ArgumentCaptor.forClass(List.class);
+        verify(userRepo).saveAllAndFlush(batch.capture());
+        Users saved = batch.getValue().get(0);
+        assertEquals(0, saved.getId());
+        assertEquals("u7", saved.getUsername());
+        assertTrue(encoder.matches("secret", saved.getPassword()));
+    }
+
+    @Test
+    @DisplayName("Should report invalid rows without saving them")
+    @SuppressWarnings("unchecked")
+    void testInvalidRows() throws Exception {
+        // Act
+        BulkRegistrationResult result = bulkRegistrationService.register(json("""
+                [{"id":1,"username":"","password":"p1"},
+                 {"id":2,"username":"u2","password":"p2"}]
+                """));
+
+        // Assert
+        assertEquals(1, result.created());
+        assertEquals(1, result.failed());
+        assertEquals(1, result.failures().size());
+        assertEquals(0, result.failures().get(0).index());
+        assertEquals(BulkRegistrationResult.Status.INVALID, result.failures().get(0).status());
+        ArgumentCaptor<List<Users>> batch = ArgumentCaptor.forClass(List.class);
+        verify(userRepo).saveAllAndFlush(batch.capture());
+        assertEquals(1, batch.getValue().size());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed chunk row by row to pinpoint the failures")
+    void testChunkFailureFallsBackToRows() throws Exception {
+        // Arrange
+        when(userRepo.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(userRepo.saveAndFlush(any(Users.class))).thenAnswer(invocation -> {
+            Users user = invocation.getArgument(0);
+            if ("taken".equals(user.getUsername())) {
+                throw new DataIntegrityViolationException("username taken");
+            }
+            return user;
+        });
+
+        // Act
+        BulkRegistrationResult result = bulkRegistrationService.register(json("""
+                [{"id":1,"username":"taken","password":"p1"},
+                 {"id":2,"username":"fresh","password":"p2"}]
+                """));
+
+        // Assert
+        assertEquals(1, result.created());
+        assertEquals(1, result.failures().size());
+        assertEquals("taken", result.failures().get(0).username());
+        assertEquals(BulkRegistrationResult.Status.FAILED, result.failures().get(0).status());
+        assertEquals("username taken", result.failures().get(0).error());
+    }
+
+    @Test
+    @DisplayName("Should hash on the calling thread when the shared hashing queue is full")
+    void testHashesInlineWhenQueueIsFull() throws Exception {
+        // Arrange
+        PasswordHashingExecutor saturated = new PasswordHashingExecutor(1, 1, new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+        saturated.submit(() -> awaitQuietly(release));
+        saturated.submit(() -> awaitQuietly(release));
+        BulkRegistrationService service = new BulkRegistrationService(new ObjectMapper(), userRepo,
+                transactionManager, encoder, new UnknownUsernames(), saturated, 10, 1);
+
+        try {
+            // Act
+            BulkRegistrationResult result = service.register(json("[{\"username\":\"u1\",\"password\":\"p1\"}]"));
+
+            // Assert
+            assertEquals(1, result.created());
+        } finally {
+            release.countDown();
+            saturated.shutdown();
+        }
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a payload that is not a JSON array")
+    void testRejectsNonArray() {
+        assertThrows(JsonProcessingException.class,
+                () -> bulkRegistrationService.register(json("{\"id\":1}")));
+        verifyNoInteractions(userRepo);
+    }
+
+    @Test
+    @DisplayName("Should accept an empty array")
+    void testEmptyArray() throws Exception {
+        BulkRegistrationResult result = bulkRegistrationService.register(json("[]"));
+
+        assertEquals(0, result.created());
+        assertTrue(result.failures().isEmpty());
+        verifyNoInteractions(userRepo);
+    }
+}
@@ -0,0 +1,88 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.UserPrincipal;
+import com.flipkart.raghav.model.Users;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CaffeineUserCache Tests")
+class CaffeineUserCacheTest {
+
+    private CaffeineUserCache userCache;
+    private UserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new CaffeineUserCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        principal = new UserPrincipal(new Users(1, "testuser", "password"));
+    }
+
+    @Test
+    @DisplayName("Should return cached principal")
+    void testPutAndGet() {
+        userCache.putUserInCache(principal);
+
+        assertSame(principal, userCache.getUserFromCache("testuser"));
+        assertNull(userCache.getUserFromCache("other"));
+    }
+
+    @Test
+    @DisplayName("Should evict a single user")
+    void testEvict() {
+        userCache.putUserInCache(principal);
+        userCache.putUserInCache(new UserPrincipal(new Users(2, "other", "password")));
+
+        userCache.evict("testuser");
+
+        assertNull(userCache.getUserFromCache("testuser"));
+        assertNotNull(userCache.getUserFromCache("other"));
+    }
+
+    @Test
+    @DisplayName("Should evict every user")
+    void testEvictAll() {
+        userCache.putUserInCache(principal);
+
+        userCache.evictAll();
+
+        assertEquals(0, userCache.size());
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the TTL")
+    void testTtl() throws InterruptedException {
+        CaffeineUserCache shortLived = new CaffeineUserCache(100, Duration.ofMillis(20), new SimpleMeterRegistry());
+        shortLived.putUserInCache(principal);
+
+        Thread.sleep(50);
+
+        assertNull(shortLived.getUserFromCache("testuser"));
+    }
+
+    @Test
+    @DisplayName("Should stay within the maximum size")
+    void testMaximumSize() {
+        CaffeineUserCache small = new CaffeineUserCache(3, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 30; i++) {
+            small.putUserInCache(new UserPrincipal(new Users(i, "user" + i, "password")));
+        }
+
+        assertTrue(small.size() <= 3);
+    }
+
+    @Test
+    @DisplayName("Should ignore null usernames")
+    void testNullUsername() {
+        userCache.putUserInCache(new UserPrincipal(new Users(1, null, "password")));
+
+        assertNull(userCache.getUserFromCache(null));
+        assertEquals(0, userCache.size());
+    }
+}
@@ -0,0 +1,249 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ColumnarStudentStore Tests")
+class ColumnarStudentStoreTest {
+
+    private ColumnarStudentStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarStudentStore(16);
+    }
+
+    private static List<Integer> ids(List<Student> students) {
+        return students.stream().map(Student::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should save, find and update students by id")
+    void testSaveAndFindById() {
+        store.save(new Student(7, "Asha", 88));
+        store.save(new Student(8, null, 10));
+        store.save(new Student(7, "Asha R", 91));
+
+        assertEquals(new Student(7, "Asha R", 91), store.findById(7));
+        assertEquals(new Student(8, null, 10), store.findById(8));
+        assertNull(store.findById(9));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("Should keep names exactly, sharing repeated ones")
+    void testNames() {
+        List<String> names = List.of("Kiran", "", "Zoë", "名前", "Kiran", "😀 smile");
+        for (int i = 0; i < names.size(); i++) {
+            store.save(new Student(i, names.get(i), i));
+        }
+
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals(names.get(i), store.findById(i).getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Should grow past its initial capacity")
+    void testGrowth() {
+        for (int id = 0; id < 10_000; id++) {
+            store.save(new Student(id, "s" + (id % 700), id % 101));
+        }
+
+        assertEquals(10_000, store.size());
+        assertEquals(new Student(9_999, "s199", 0), store.findById(9_999));
+        assertEquals(new Student(0, "s0", 0), store.findById(0));
+    }
+
+    @Test
+    @DisplayName("Should page by id even when ids arrive out of order")
+    void testFindPage() {
+        for (int id = 10; id >= 1; id--) {
+            store.save(new Student(id, "s" + id, id));
+        }
+        store.save(new Student(-5, "negative", 0));
+
+        assertEquals(List.of(-5, 1, 2), ids(store.findPage(Integer.MIN_VALUE, 3)));
+        assertEquals(List.of(4, 5, 6), ids(store.findPage(3, 3)));
+        assertEquals(List.of(10), ids(store.findPage(9, 3)));
+        assertTrue(store.findPage(10, 3).isEmpty());
+
+        store.save(new Student(11, "s11", 11));
+        store.save(new Student(0, "s0", 0));
+        assertEquals(List.of(0, 1), ids(store.findPage(-1, 2)));
+        assertEquals(List.of(11), ids(store.findPage(10, 5)));
+    }
+
+    @Test
+    @DisplayName("Should agree with the in-memory store on queries and the leaderboard")
+    void testMatchesInMemoryStore() {
+        // Arrange
+        InMemoryStudentStore reference = new InMemoryStudentStore(List.of());
+        Random random = new Random(42);
+        String[] names = {"A", "Ab", "Abc", "B", "Ba", "Bz", "C"};
+        for (int i = 0; i < 3_000; i++) {
+            String name = random.nextInt(20) == 0 ? null : names[random.nextInt(names.length)];
+            Student student = new Student(random.nextInt(2_000) - 1_000, name, random.nextInt(101));
+            store.save(student);
+            reference.save(student);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            Integer min = random.nextBoolean() ? random.nextInt(101) : null;
+            Integer max = random.nextBoolean() ? (min == null ? 0 : min) + random.nextInt(50) : null;
+            String prefix = random.nextBoolean() ? names[random.nextInt(names.length)] : null;
+            StudentQuery.SortField sort = StudentQuery.SortField.values()[random.nextInt(3)];
+            StudentQuery query = new StudentQuery(min, max, prefix, sort, random.nextBoolean(), 1 + random.nextInt(50));
+
+            // Act / Assert
+            assertEquals(reference.query(query), store.query(query), query::toString);
+        }
+        assertEquals(reference.top(100), store.top(100));
+        assertEquals(reference.stats(50, 90), store.stats(50, 90));
+        assertEquals(reference.findAll(), store.findPage(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Should keep name order and prefixes right while names come and go")
+    void testNameChurnMatchesInMemoryStore() {
+        // Arrange
+        InMemoryStudentStore reference = new InMemoryStudentStore(List.of());
+        Random random = new Random(7);
+        String[] prefixes = {"a", "ab", "b", "ba", "c", "😀", "zz"};
+
+        for (int round = 0; round < 40; round++) {
+            // Act: renames drop names from the dictionary and bring new ones in
+            for (int i = 0; i < 200; i++) {
+                String name = random.nextInt(30) == 0 ? null
+                        : prefixes[random.nextInt(prefixes.length)] + random.nextInt(round * 5 + 5);
+                Student student = new Student(random.nextInt(300), name, random.nextInt(101));
+                store.save(student);
+                reference.save(student);
+            }
+
+            // Assert
+            for (int i = 0; i < 10; i++) {
+                String prefix = prefixes[random.nextInt(prefixes.length)] + (random.nextBoolean() ? "1" : "");
+                StudentQuery query = new StudentQuery(null, null, random.nextBoolean() ? prefix : null,
+                        StudentQuery.SortField.NAME, random.nextBoolean(), 1 + random.nextInt(100));
+                assertEquals(reference.query(query), store.query(query), query::toString);
+            }
+        }
+        assertEquals(reference.findAll(), store.findPage(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Should reclaim the names that renames replace")
+    void testRenamesReclaimNames() {
+        // Arrange
+        store.save(new Student(1, "kept", 50));
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            store.save(new Student(2, "renamed-student-" + i, 60));
+        }
+
+        // Assert
+        assertEquals(2, store.distinctNames());
+        assertTrue(store.nameArenaCapacity() <= 1024, "arena: " + store.nameArenaCapacity());
+        assertEquals(new Student(2, "renamed-student-99999", 60), store.findById(2));
+        assertEquals(List.of(new Student(1, "kept", 50)),
+                store.query(new StudentQuery(null, null, "ke", StudentQuery.SortField.NAME, false, 10)));
+    }
+
+    @Test
+    @DisplayName("Should scan aggregates off the marks column")
+    void testColumnScans() {
+        for (int id = 1; id <= 100; id++) {
+            store.save(new Student(id, "s", id));
+        }
+        store.save(new Student(100, "s", 0));
+
+        assertEquals(4950, store.sumMarks());
+        assertEquals(10, store.countMarksBetween(90, 100));
+        assertEquals(0, store.countMarksBetween(101, 200));
+        assertEquals(4950, store.stats().sum());
+    }
+
+    @Test
+    @DisplayName("Should take less than half the heap of an ArrayList of Students")
+    void testFootprintAgainstObjectList() {
+        // Arrange: names repeat, as real rosters do, but each Student holds its own String
+        int count = 200_000;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        // Act
+        long before = usedHeapAfterGc(memory);
+        List<Student> list = new ArrayList<>();
+        for (int id = 0; id < count; id++) {
+            list.add(new Student(id, "student-" + (id % 5_000), id % 101));
+        }
+        long objectBytes = usedHeapAfterGc(memory) - before;
+        Reference.reachabilityFence(list);
+        list = null;
+
+        before = usedHeapAfterGc(memory);
+        ColumnarStudentStore columnar = new ColumnarStudentStore(16);
+        for (int id = 0; id < count; id++) {
+            columnar.save(new Student(id, "student-" + (id % 5_000), id % 101));
+        }
+        long columnarBytes = usedHeapAfterGc(memory) - before;
+        Reference.reachabilityFence(columnar);
+
+        // Assert
+        assertEquals(count, columnar.size());
+        assertTrue(columnarBytes * 2 < objectBytes,
+                "columnar " + columnarBytes + " bytes vs ArrayList<Student> " + objectBytes + " bytes");
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @Test
+    @DisplayName("Should return the k smallest keys in order")
+    void testSmallest() {
+        long[] keys = {9, 3, 7, 1, 8, 2, 6};
+
+        assertArrayEquals(new long[]{1, 2, 3}, SortKeys.smallest(keys, keys.length, 3));
+        assertArrayEquals(new long[]{3, 9}, SortKeys.smallest(keys, 2, 5));
+        assertArrayEquals(new long[0], SortKeys.smallest(keys, keys.length, 0));
+    }
+
+    @Test
+    @DisplayName("Should keep only the k smallest keys streamed through the heap")
+    void testSmallestStreaming() {
+        // Arrange
+        SortKeys.Smallest best = new SortKeys.Smallest(4);
+        Random random = new Random(7);
+        long[] all = new long[10_000];
+
+        // Act
+        for (int i = 0; i < all.length; i++) {
+            all[i] = random.nextLong();
+            best.offer(all[i]);
+        }
+
+        // Assert
+        Arrays.sort(all);
+        assertArrayEquals(Arrays.copyOf(all, 4), best.sorted());
+    }
+}
@@ -0,0 +1,143 @@
+package com.flipkart.raghav.service;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FastHs256Parser Tests")
+class FastHs256ParserTest {
+
+    private JwtKeyRing keyRing;
+    private JWTService jwtService;
+    private FastHs256Parser parser;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = new JwtKeyRing();
+        jwtService = new JWTService(keyRing);
+        parser = new FastHs256Parser(keyRing);
+    }
+
+    private String sign(Map<String, ?> claims, long expiresInMillis) {
+        return Jwts.builder()
+                .header().keyId(keyRing.activeKeyId()).and()
+                .claims(claims)
+                .subject("testuser")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .signWith(keyRing.signingKey())
+                .compact();
+    }
+
+    @Test
+    @DisplayName("Should read the same subject and expiry as JJWT")
+    void testMatchesJjwt() {
+        String token = jwtService.generateToken("testuser");
+
+        VerifiedToken fast = parser.parse(token);
+        VerifiedToken jjwt = jwtService.verify(token);
+
+        assertNotNull(fast);
+        assertEquals(jjwt.subject(), fast.subject());
+        assertEquals(jjwt.expiration(), fast.expiration());
+    }
+
+    @Test
+    @DisplayName("Should handle unicode and escaped characters in the subject")
+    void testUnicodeAndEscapes() {
+        assertEquals("用户", parser.parse(jwtService.generateToken("用户")).subject());
+        assertEquals("a\"b\\c/d\te", parser.parse(jwtService.generateToken("a\"b\\c/d\te")).subject());
+    }
+
+    @Test
+    @DisplayName("Should read string array, integer and boolean claims")
+    void testCustomClaims() {
+        String token = sign(Map.of("roles", List.of("USER", "ADMIN"), "ver", 7, "flag", true), 60_000);
+
+        VerifiedToken verified = parser.parse(token);
+
+        assertNotNull(verified);
+        assertEquals(List.of("USER", "ADMIN"), verified.claims().get("roles"));
+        assertEquals(7L, verified.claims().get("ver"));
+        assertEquals(Boolean.TRUE, verified.claims().get("flag"));
+    }
+
+    @Test
+    @DisplayName("Should give up on tampered signatures and payloads")
+    void testTampered() {
+        String token = jwtService.generateToken("testuser");
+        String badSignature = token.substring(0, token.length() - 5) + "XXXXX";
+        String[] parts = token.split("\\.");
+        String otherPayload = jwtService.generateToken("admin").split("\\.")[1];
+
+        assertNull(parser.parse(badSignature));
+        assertNull(parser.parse(parts[0] + "." + otherPayload + "." + parts[2]));
+    }
+
+    @Test
+    @DisplayName("Should give up on tokens signed by someone else")
+    void testForeignKey() {
+        assertNull(parser.parse(new JWTService().generateToken("testuser")));
+    }
+
+    @Test
+    @DisplayName("Should give up on expired tokens")
+    void testExpired() {
+        assertNull(parser.parse(sign(Map.of(), -60_000)));
+    }
+
+    @Test
+    @DisplayName("Should give up on nested claims and unexpected header fields")
+    void testUnsupportedShapes() {
+        String nested = sign(Map.of("address", Map.of("city", "x")), 60_000);
+        String withNotBefore = Jwts.builder()
+                .header().keyId(keyRing.activeKeyId()).and()
+                .subject("testuser")
+                .notBefore(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(keyRing.signingKey())
+                .compact();
+        String withContentType = Jwts.builder()
+                .header().keyId(keyRing.activeKeyId()).contentType("custom").and()
+                .subject("testuser")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(keyRing.signingKey())
+                .compact();
+
+        assertNull(parser.parse(nested));
+        assertNull(parser.parse(withNotBefore));
+        assertNull(parser.parse(withContentType));
+    }
+
+    @Test
+    @DisplayName("Should give up on malformed input")
+    void testMalformed() {
+        assertNull(parser.parse(null));
+        assertNull(parser.parse(""));
+        assertNull(parser.parse("header.payload"));
+        assertNull(parser.parse("a.b.c.d"));
+        assertNull(parser.parse("!!!.???.###"));
+    }
+
+    @Test
+    @DisplayName("Should keep JJWT's exceptions when the fast path falls back")
+    void testFallbackThroughJwtService() {
+        JWTService fastService = new JWTService(keyRing, true);
+        String expired = sign(Map.of(), -60_000);
+        String token = fastService.generateToken("testuser");
+
+        assertEquals("testuser", fastService.verify(token).subject());
+        assertEquals("testuser", fastService.verify(sign(Map.of("address", Map.of("city", "x")), 60_000)).subject());
+        assertThrows(ExpiredJwtException.class, () -> fastService.verify(expired));
+        assertThrows(Exception.class, () -> fastService.verify(token.substring(0, token.length() - 5) + "XXXXX"));
+        assertThrows(IllegalArgumentException.class, () -> fastService.verify(null));
+    }
+}
@@ -0,0 +1,312 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InMemoryStudentStore Tests")
+class InMemoryStudentStoreTest {
+
+    private InMemoryStudentStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryStudentStore(List.of());
+    }
+
+    @Test
+    @DisplayName("Should start with the sample students by default")
+    void testDefaultContents() {
+        InMemoryStudentStore defaults = new InMemoryStudentStore();
+
+        assertEquals(2, defaults.size());
+        assertEquals("Navin", defaults.findById(1).getName());
+        assertEquals("Kiran", defaults.findById(2).getName());
+    }
+
+    @Test
+    @DisplayName("Should find saved students by id")
+    void testSaveAndFindById() {
+        store.save(new Student(7, "Asha", 88));
+
+        assertEquals(new Student(7, "Asha", 88), store.findById(7));
+        assertNull(store.findById(8));
+    }
+
+    @Test
+    @DisplayName("Should replace a student saved again with the same id")
+    void testSaveReplaces() {
+        store.save(new Student(7, "Asha", 88));
+        store.save(new Student(7, "Asha", 91));
+
+        assertEquals(1, store.size());
+        assertEquals(91, store.findById(7).getMarks());
+    }
+
+    @Test
+    @DisplayName("Should keep its own copy of saved students")
+    void testSaveCopies() {
+        Student student = new Student(7, "Asha", 88);
+        store.save(student);
+
+        student.setMarks(0);
+
+        assertEquals(88, store.findById(7).getMarks());
+    }
+
+    @Test
+    @DisplayName("Should list students ordered by id in a detached snapshot")
+    void testFindAllSnapshot() {
+        store.save(new Student(3, "C", 30));
+        store.save(new Student(1, "A", 10));
+        store.save(new Student(2, "B", 20));
+
+        List<Student> snapshot = store.findAll();
+        store.save(new Student(4, "D", 40));
+
+        assertEquals(List.of(1, 2, 3), snapshot.stream().map(Student::getId).toList());
+        assertEquals(4, store.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Should stay consistent under concurrent writers and readers")
+    void testConcurrentStress() throws Exception {
+        // Arrange
+        int writers = 8;
+        int perWriter = 5_000;
+        int readers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> problems = new ConcurrentLinkedQueue<>();
+
+        try {
+            // Act
+            List<Future<?>> writes = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                writes.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perWriter; i++) {
+                        int id = writer * perWriter + i;
+                        store.save(new Student(id, "s" + id, i % 100));
+                        // overwrite a neighbour's id too, so writers collide on keys
+                        store.save(new Student((id + perWriter) % (writers * perWriter), "x", 0));
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> reads = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                reads.add(executor.submit(() -> {
+                    start.await();
+                    int lastSize = 0;
+                    while (writing.get()) {
+                        List<Student> snapshot = store.findAll();
+                        Set<Integer> ids = new HashSet<>();
+                        int previous = Integer.MIN_VALUE;
+                        for (Student student : snapshot) {
+                            if (!ids.add(student.getId()) || student.getId() <= previous) {
+                                problems.add("unordered or duplicate id " + student.getId());
+                            }
+                            previous = student.getId();
+                        }
+                        if (snapshot.size() < lastSize) {
+                            problems.add("snapshot shrank from " + lastSize + " to " + snapshot.size());
+                        }
+                        lastSize = snapshot.size();
+                        Student probe = store.findById(snapshot.isEmpty() ? 0 : snapshot.get(0).getId());
+                        if (!snapshot.isEmpty() && probe == null) {
+                            problems.add("listed student missing by id");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> read : reads) {
+                read.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertTrue(problems.isEmpty(), () -> String.join("\n", problems));
+        assertEquals(writers * perWriter, store.size());
+        assertEquals(writers * perWriter, store.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Should page through students by id")
+    void testFindPage() {
+        for (int id = 10; id >= 1; id--) {
+            store.save(new Student(id, "s" + id, id));
+        }
+
+        assertEquals(List.of(1, 2, 3), store.findPage(0, 3).stream().map(Student::getId).toList());
+        assertEquals(List.of(4, 5, 6), store.findPage(3, 3).stream().map(Student::getId).toList());
+        assertEquals(List.of(10), store.findPage(9, 3).stream().map(Student::getId).toList());
+        assertTrue(store.findPage(10, 3).isEmpty());
+    }
+
+    private static List<Integer> ids(List<Student> students) {
+        return students.stream().map(Student::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should query a marks range ordered by marks")
+    void testQueryMarksRange() {
+        for (int id = 1; id <= 20; id++) {
+            store.save(new Student(id, "s" + id, id * 5));
+        }
+
+        StudentQuery query = new StudentQuery(30, 60, null, StudentQuery.SortField.MARKS, true, 3);
+
+        assertEquals(List.of(12, 11, 10), ids(store.query(query)));
+    }
+
+    @Test
+    @DisplayName("Should query a name prefix ordered by name, breaking ties by id")
+    void testQueryNamePrefix() {
+        store.save(new Student(1, "Kiran", 70));
+        store.save(new Student(2, "Navin", 60));
+        store.save(new Student(3, "Kiara", 80));
+        store.save(new Student(4, "Kiran", 50));
+        store.save(new Student(5, "Ki", 90));
+
+        StudentQuery query = new StudentQuery(null, null, "Ki", StudentQuery.SortField.NAME, false, 10);
+
+        assertEquals(List.of(5, 3, 1, 4), ids(store.query(query)));
+    }
+
+    @Test
+    @DisplayName("Should drive from the filtered index when sorting on another field")
+    void testQueryUnorderedPath() {
+        store.save(new Student(1, "Kiran", 70));
+        store.save(new Student(2, "Kiara", 80));
+        store.save(new Student(3, "Navin", 90));
+
+        StudentQuery query = new StudentQuery(null, null, "Ki", StudentQuery.SortField.MARKS, true, 1);
+
+        assertEquals(List.of(2), ids(store.query(query)));
+    }
+
+    @Test
+    @DisplayName("Should move index entries when a student is updated")
+    void testQueryAfterUpdate() {
+        store.save(new Student(1, "Asha", 40));
+        store.save(new Student(1, "Bela", 90));
+
+        assertTrue(store.query(new StudentQuery(null, 50, null, null, false, 10)).isEmpty());
+        assertTrue(store.query(new StudentQuery(null, null, "As", null, false, 10)).isEmpty());
+        assertEquals(List.of(1), ids(store.query(new StudentQuery(80, null, "Be", null, false, 10))));
+    }
+
+    @Test
+    @DisplayName("Should agree with a brute-force filter and sort")
+    void testQueryMatchesBruteForce() {
+        // Arrange
+        Random random = new Random(42);
+        String[] names = {"A", "Ab", "Abc", "B", "Ba", "Bz", "C"};
+        for (int i = 0; i < 2_000; i++) {
+            store.save(new Student(random.nextInt(1_000) - 500, names[random.nextInt(names.length)], random.nextInt(101)));
+        }
+        List<Student> all = store.findAll();
+
+        for (int i = 0; i < 200; i++) {
+            Integer min = random.nextBoolean() ? random.nextInt(101) : null;
+            Integer max = random.nextBoolean() ? (min == null ? 0 : min) + random.nextInt(50) : null;
+            String prefix = random.nextBoolean() ? names[random.nextInt(names.length)] : null;
+            StudentQuery.SortField sort = StudentQuery.SortField.values()[random.nextInt(3)];
+            StudentQuery query = new StudentQuery(min, max, prefix, sort, random.nextBoolean(), 1 + random.nextInt(50));
+
+            // Act
+            List<Student> actual = store.query(query);
+
+            // Assert
+            List<Student> expected = all.stream().filter(query::matches).sorted(query.comparator())
+                    .limit(query.limit()).toList();
+            assertEquals(expected, actual, query::toString);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep marks statistics up to date on writes")
+    void testStats() {
+        store.save(new Student(1, "A", 40));
+        store.save(new Student(2, "B", 60));
+        store.save(new Student(2, "B", 80));
+
+        StudentStats stats = store.stats(50);
+
+        assertEquals(2, stats.count());
+        assertEquals(120, stats.sum());
+        assertEquals(40, stats.min());
+        assertEquals(80, stats.max());
+        assertEquals(40, stats.percentiles().get("p50"));
+    }
+
+    @Test
+    @DisplayName("Should rank by marks, breaking ties by the lower id")
+    void testTop() {
+        store.save(new Student(5, "E", 70));
+        store.save(new Student(3, "C", 90));
+        store.save(new Student(4, "D", 90));
+        store.save(new Student(1, "A", 80));
+        store.save(new Student(2, "B", 90));
+
+        assertEquals(List.of(2, 3, 4, 1), ids(store.top(4)));
+        assertEquals(List.of(2), ids(store.top(1)));
+        assertEquals(5, store.top(100).size());
+    }
+
+    @Test
+    @DisplayName("Should reflect updates in the leaderboard")
+    void testTopAfterUpdate() {
+        store.save(new Student(1, "A", 95));
+        store.save(new Student(2, "B", 85));
+
+        store.save(new Student(1, "A", 10));
+
+        assertEquals(List.of(2, 1), ids(store.top(2)));
+    }
+
+    @Test
+    @DisplayName("Should agree with sorting the whole roster")
+    void testTopMatchesFullSort() {
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            store.save(new Student(random.nextInt(10_000), "s", random.nextInt(101)));
+        }
+        Comparator<Student> leaderboard = Comparator.comparingInt(Student::getMarks).reversed()
+                .thenComparingInt(Student::getId);
+
+        List<Student> expected = store.findAll().stream().sorted(leaderboard).limit(250).toList();
+
+        assertEquals(expected, store.top(250));
+    }
+}
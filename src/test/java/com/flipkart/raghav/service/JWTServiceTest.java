@@ -1,5 +1,7 @@
 package com.flipkart.raghav.service;
 
+import com.flipkart.raghav.model.Users;
+import com.flipkart.raghav.model.UserPrincipal;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
@@ -321,4 +323,60 @@ class JWTServiceTest {
 
         assertEquals("TestUser123", extractedUsername);
     }
+
+    @Test
+    @DisplayName("Should expose subject, expiration and claims from verified token")
+    void testVerifyToken() {
+        String token = jwtService.generateToken("testuser");
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertEquals("testuser", verified.subject());
+        assertNotNull(verified.expiration());
+        assertEquals("testuser", verified.claims().get(Claims.SUBJECT));
+        assertFalse(verified.isExpired());
+    }
+
+    @Test
+    @DisplayName("Should validate an already verified token without parsing again")
+    void testValidateVerifiedToken() {
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken("testuser"));
+        UserDetails wrongUser = User.builder()
+                .username("wronguser")
+                .password("password")
+                .authorities("USER")
+                .build();
+
+        assertTrue(verified.isValidFor(userDetails));
+        assertFalse(verified.isValidFor(wrongUser));
+    }
+
+    @Test
+    @DisplayName("Should reject tampered token on verify")
+    void testVerifyTamperedToken() {
+        String token = jwtService.generateToken("testuser");
+        String tamperedToken = token.substring(0, token.length() - 5) + "XXXXX";
+
+        assertThrows(Exception.class, () -> jwtService.verify(tamperedToken));
+    }
+
+    @Test
+    @DisplayName("Should embed authorities and user version for a principal")
+    void testGenerateTokenForPrincipal() {
+        UserPrincipal principal = new UserPrincipal(new Users(1, "testuser", "password", 3));
+
+        VerifiedToken verified = jwtService.verify(jwtService.generateClaimsToken(principal));
+
+        assertEquals("testuser", verified.subject());
+        assertEquals(java.util.List.of("USER"), verified.roles());
+        assertEquals(3, verified.userVersion());
+    }
+
+    @Test
+    @DisplayName("Should not embed authorities in username-only tokens")
+    void testUsernameTokenHasNoRoles() {
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken("testuser"));
+
+        assertNull(verified.roles());
+        assertNull(verified.userVersion());
+    }
 }
\ No newline at end of file
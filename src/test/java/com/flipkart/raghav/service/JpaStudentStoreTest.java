@@ -0,0 +1,225 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentPage;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+import com.flipkart.raghav.repository.StudentRepo;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "students.store=jpa",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(JpaStudentStore.class)
+@DisplayName("JpaStudentStore Tests")
+class JpaStudentStoreTest {
+
+    @Autowired
+    private JpaStudentStore store;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StudentRepo studentRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static List<Student> students(int from, int to) {
+        List<Student> students = new ArrayList<>();
+        for (int id = from; id <= to; id++) {
+            students.add(new Student(id, "s" + id, id % 100));
+        }
+        return students;
+    }
+
+    @Test
+    @DisplayName("Should save and find a student by id")
+    void testSaveAndFindById() {
+        store.save(new Student(7, "Asha", 88));
+
+        assertEquals(new Student(7, "Asha", 88), store.findById(7));
+        assertNull(store.findById(8));
+    }
+
+    @Test
+    @DisplayName("Should page through students by id")
+    void testFindPage() {
+        store.saveAll(students(1, 250));
+
+        List<Integer> seen = new ArrayList<>();
+        StudentPage page = StudentPage.of(store.findPage(0, 100), 100);
+        seen.addAll(page.students().stream().map(Student::getId).toList());
+        while (page.nextAfterId() != null) {
+            page = StudentPage.of(store.findPage(page.nextAfterId(), 100), 100);
+            seen.addAll(page.students().stream().map(Student::getId).toList());
+        }
+
+        assertEquals(250, seen.size());
+        assertEquals(1, seen.get(0));
+        assertEquals(250, seen.get(249));
+        assertEquals(250, store.size());
+    }
+
+    @Test
+    @DisplayName("Should insert a batch with about one statement per JDBC batch")
+    void testSaveAllIsBatched() {
+        // Arrange
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        store.saveAll(students(1, 500));
+
+        // Assert: one existence check and one insert batch per 50 rows
+        assertTrue(statistics.getPrepareStatementCount() <= 20,
+                "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(500, store.size());
+    }
+
+    @Test
+    @DisplayName("Should replace existing students in a batch")
+    void testSaveAllUpserts() {
+        store.saveAll(students(1, 10));
+
+        store.saveAll(List.of(new Student(5, "changed", 1), new Student(11, "new", 2)));
+
+        assertEquals("changed", store.findById(5).getName());
+        assertEquals("new", store.findById(11).getName());
+        assertEquals(11, store.size());
+    }
+
+    @Test
+    @DisplayName("Should filter, sort and limit in the database")
+    void testQuery() {
+        store.saveAll(students(1, 300));
+        store.save(new Student(301, "s_%", 50));
+
+        List<Student> top = store.query(new StudentQuery(90, 95, null, StudentQuery.SortField.MARKS, true, 4));
+        List<Student> prefixed = store.query(new StudentQuery(null, null, "s_", StudentQuery.SortField.NAME, false, 10));
+
+        assertEquals(List.of(295, 195, 95, 294), top.stream().map(Student::getId).toList());
+        assertEquals(List.of(301), prefixed.stream().map(Student::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should rank by marks in the database, lower id first on a tie")
+    void testTop() {
+        store.saveAll(students(1, 300));
+
+        List<Student> top = store.top(4);
+
+        assertEquals(List.of(99, 199, 299, 98), top.stream().map(Student::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should read the leaderboard in index order without sorting")
+    void testTopUsesIndexOrder() {
+        // Act
+        String plan = String.valueOf(entityManager.createNativeQuery(
+                "explain select id, marks, name from student order by marks desc, id asc fetch first 10 rows only")
+                .getSingleResult());
+
+        // Assert
+        assertTrue(plan.contains("IX_STUDENT_TOP"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should update statistics only for committed writes")
+    void testStats() {
+        try {
+            // Arrange: rows written before startup are picked up by preload
+            studentRepo.saveAll(List.of(new Student(1, "a", 10), new Student(2, "b", 20)));
+            store.preload();
+
+            // Act
+            store.save(new Student(2, "b", 90));
+            store.saveAll(List.of(new Student(3, "c", 30), new Student(1, "a", 50)));
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                store.save(new Student(4, "rolled back", 100));
+                status.setRollbackOnly();
+            });
+
+            // Assert
+            StudentStats stats = store.stats(100);
+            assertEquals(3, stats.count());
+            assertEquals(170, stats.sum());
+            assertEquals(30, stats.min());
+            assertEquals(90, stats.max());
+        } finally {
+            studentRepo.deleteAll();
+            store.preload();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should keep statistics exact under concurrent writes to the same ids")
+    void testStatsUnderConcurrentWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // Arrange
+            store.saveAll(students(1, 3));
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 50; i++) {
+                        if (random.nextBoolean()) {
+                            store.save(new Student(1 + random.nextInt(3), "s", random.nextInt(101)));
+                        } else {
+                            store.saveAll(List.of(new Student(1, "s", random.nextInt(101)),
+                                    new Student(2, "s", random.nextInt(101)), new Student(3, "s", random.nextInt(101))));
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            // Act
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+
+            // Assert
+            StudentStats stats = store.stats(100);
+            assertEquals(3, stats.count());
+            assertEquals(studentRepo.findAll().stream().mapToLong(Student::getMarks).sum(), stats.sum());
+        } finally {
+            executor.shutdownNow();
+            studentRepo.deleteAll();
+            store.preload();
+        }
+    }
+}
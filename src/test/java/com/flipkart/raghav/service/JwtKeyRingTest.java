@@ -0,0 +1,143 @@
+package com.flipkart.raghav.service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JwtKeyRing Tests")
+class JwtKeyRingTest {
+
+    private String secret1;
+    private String secret2;
+
+    @BeforeEach
+    void setUp() {
+        secret1 = Base64.getEncoder().encodeToString(Jwts.SIG.HS256.key().build().getEncoded());
+        secret2 = Base64.getEncoder().encodeToString(Jwts.SIG.HS256.key().build().getEncoded());
+    }
+
+    @Test
+    @DisplayName("Should generate a random active key when nothing is configured")
+    void testGeneratedKey() {
+        JwtKeyRing keyRing = new JwtKeyRing("", "");
+
+        assertNotNull(keyRing.activeKeyId());
+        assertNotNull(keyRing.signingKey());
+        assertSame(keyRing.signingKey(), keyRing.verificationKey(keyRing.activeKeyId()));
+    }
+
+    @Test
+    @DisplayName("Should load configured keys and activate the first one by default")
+    void testConfiguredKeys() {
+        JwtKeyRing keyRing = new JwtKeyRing("k1:" + secret1 + ",k2:" + secret2, "");
+
+        assertEquals("k1", keyRing.activeKeyId());
+        assertArrayEquals(Base64.getDecoder().decode(secret2), keyRing.verificationKey("k2").getEncoded());
+    }
+
+    @Test
+    @DisplayName("Should activate the configured active kid")
+    void testConfiguredActiveKid() {
+        JwtKeyRing keyRing = new JwtKeyRing("k1:" + secret1 + ",k2:" + secret2, "k2");
+
+        assertEquals("k2", keyRing.activeKeyId());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed key entries")
+    void testMalformedKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(secret1, ""));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing("k1:" + secret1, "missing"));
+    }
+
+    @Test
+    @DisplayName("Should stamp the active kid on issued tokens")
+    void testTokenCarriesKid() {
+        JwtKeyRing keyRing = new JwtKeyRing("k1:" + secret1, "");
+        JWTService jwtService = new JWTService(keyRing);
+
+        String token = jwtService.generateToken("testuser");
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+
+        assertTrue(header.contains("\"kid\":\"k1\""));
+    }
+
+    @Test
+    @DisplayName("Should keep verifying old tokens after rotating the active key")
+    void testRotation() {
+        JwtKeyRing keyRing = new JwtKeyRing("k1:" + secret1 + ",k2:" + secret2, "k1");
+        JWTService jwtService = new JWTService(keyRing);
+        String oldToken = jwtService.generateToken("testuser");
+
+        keyRing.activate("k2");
+        String newToken = jwtService.generateToken("testuser");
+
+        assertEquals("testuser", jwtService.extractUserName(oldToken));
+        assertEquals("testuser", jwtService.extractUserName(newToken));
+    }
+
+    @Test
+    @DisplayName("Should reject tokens signed with a retired key")
+    void testRetiredKey() {
+        JwtKeyRing keyRing = new JwtKeyRing("k1:" + secret1 + ",k2:" + secret2, "k1");
+        JWTService jwtService = new JWTService(keyRing);
+        String oldToken = jwtService.generateToken("testuser");
+
+        keyRing.activate("k2");
+        keyRing.retire("k1");
+
+        assertThrows(SignatureException.class, () -> jwtService.extractUserName(oldToken));
+    }
+
+    @Test
+    @DisplayName("Should not retire the active key")
+    void testRetireActiveKey() {
+        JwtKeyRing keyRing = new JwtKeyRing("k1:" + secret1, "");
+
+        assertThrows(IllegalStateException.class, () -> keyRing.retire("k1"));
+    }
+
+    @Test
+    @DisplayName("Should reuse the same derived key for every lookup")
+    void testKeyIsDerivedOnce() {
+        JwtKeyRing keyRing = new JwtKeyRing("k1:" + secret1, "");
+        SecretKey first = keyRing.verificationKey("k1");
+
+        assertSame(first, keyRing.verificationKey("k1"));
+        assertSame(first, keyRing.signingKey());
+    }
+
+    @Test
+    @DisplayName("Should publish the active kid and its key together")
+    void testActiveKeyIsConsistent() {
+        JwtKeyRing keyRing = new JwtKeyRing("k1:" + secret1 + ",k2:" + secret2, "k1");
+
+        keyRing.activate("k2");
+        JwtKeyRing.SigningKey active = keyRing.activeKey();
+
+        assertEquals("k2", active.kid());
+        assertSame(keyRing.verificationKey("k2"), active.key());
+    }
+
+    @Test
+    @DisplayName("Should reject tokens without a kid header")
+    void testKidlessTokenRejected() {
+        JwtKeyRing keyRing = new JwtKeyRing("k1:" + secret1, "");
+        JWTService jwtService = new JWTService(keyRing);
+        String kidless = Jwts.builder()
+                .subject("testuser")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(keyRing.signingKey())
+                .compact();
+
+        assertThrows(SignatureException.class, () -> jwtService.extractUserName(kidless));
+    }
+}
@@ -0,0 +1,109 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.StudentStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MarksHistogram Tests")
+class MarksHistogramTest {
+
+    @Test
+    @DisplayName("Should report empty statistics with no marks")
+    void testEmpty() {
+        StudentStats stats = new MarksHistogram().snapshot(50);
+
+        assertEquals(0, stats.count());
+        assertNull(stats.mean());
+        assertNull(stats.min());
+        assertTrue(stats.percentiles().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep count, sum, min, max and nearest-rank percentiles")
+    void testSnapshot() {
+        // Arrange
+        MarksHistogram histogram = new MarksHistogram();
+        for (int marks = 1; marks <= 100; marks++) {
+            histogram.add(marks);
+        }
+
+        // Act
+        StudentStats stats = histogram.snapshot(50, 90, 99.5, 100);
+
+        // Assert
+        assertEquals(100, stats.count());
+        assertEquals(5050, stats.sum());
+        assertEquals(50.5, stats.mean());
+        assertEquals(1, stats.min());
+        assertEquals(100, stats.max());
+        assertEquals(Map.of("p50", 50, "p90", 90, "p99.5", 100, "p100", 100), stats.percentiles());
+    }
+
+    @Test
+    @DisplayName("Should move min and max when marks are removed or replaced")
+    void testRemoveAndReplace() {
+        MarksHistogram histogram = new MarksHistogram();
+        histogram.add(10);
+        histogram.add(10);
+        histogram.add(90);
+
+        histogram.replace(90, 40);
+        histogram.remove(10);
+        histogram.remove(77);
+
+        StudentStats stats = histogram.snapshot();
+        assertEquals(2, stats.count());
+        assertEquals(50, stats.sum());
+        assertEquals(10, stats.min());
+        assertEquals(40, stats.max());
+    }
+
+    @Test
+    @DisplayName("Should merge another histogram")
+    void testMerge() {
+        MarksHistogram left = new MarksHistogram();
+        MarksHistogram right = new MarksHistogram();
+        left.add(10, 3);
+        right.add(20, 1);
+
+        left.merge(right);
+
+        StudentStats stats = left.snapshot(75, 100);
+        assertEquals(4, stats.count());
+        assertEquals(50, stats.sum());
+        assertEquals(10, stats.percentiles().get("p75"));
+        assertEquals(20, stats.percentiles().get("p100"));
+    }
+
+    @Test
+    @DisplayName("Should cancel a removal against a later add of the same mark")
+    void testRemoveBeforeAdd() {
+        // Arrange: a student went 10 -> 20 -> 30, but the second update reported first
+        MarksHistogram histogram = new MarksHistogram();
+        histogram.add(10);
+
+        // Act
+        histogram.replace(20, 30);
+        histogram.replace(10, 20);
+
+        // Assert
+        StudentStats stats = histogram.snapshot(100);
+        assertEquals(1, stats.count());
+        assertEquals(30, stats.sum());
+        assertEquals(30, stats.min());
+    }
+
+    @Test
+    @DisplayName("Should reject percentiles outside (0, 100]")
+    void testInvalidPercentile() {
+        MarksHistogram histogram = new MarksHistogram();
+        histogram.add(1);
+
+        assertThrows(IllegalArgumentException.class, () -> histogram.snapshot(0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.snapshot(101));
+    }
+}
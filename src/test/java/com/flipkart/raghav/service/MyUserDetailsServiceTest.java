@@ -1,5 +1,15 @@
 package com.flipkart.raghav.service;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.List;
+import java.util.ArrayList;
+import java.time.Duration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.flipkart.raghav.model.UserCredentials;
 import com.flipkart.raghav.model.UserPrincipal;
 import com.flipkart.raghav.model.Users;
 import com.flipkart.raghav.repository.UserRepo;
@@ -7,10 +17,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.cache.NullUserCache;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,21 +33,25 @@ class MyUserDetailsServiceTest {
     @Mock
     private UserRepo userRepo;
 
-    @InjectMocks
     private MyUserDetailsService userDetailsService;
 
     private Users testUser;
 
     @BeforeEach
     void setUp() {
+        userDetailsService = new MyUserDetailsService(userRepo, new NullUserCache(), new UnknownUsernames());
         testUser = new Users(1, "testuser", "password123");
     }
 
+    private static UserCredentials credentials(Users user) {
+        return new UserCredentials(user.getId(), user.getUsername(), user.getPassword(), user.getTokenVersion());
+    }
+
     @Test
     @DisplayName("Should load user by username when user exists")
     void testLoadUserByUsernameWhenUserExists() {
         // Arrange
-        when(userRepo.findByUsername("testuser")).thenReturn(testUser);
+        when(userRepo.findCredentialsByUsername("testuser")).thenReturn(credentials(testUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("testuser");
@@ -48,14 +62,14 @@ class MyUserDetailsServiceTest {
         assertEquals("testuser", userDetails.getUsername());
         assertEquals("password123", userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername("testuser");
+        verify(userRepo, times(1)).findCredentialsByUsername("testuser");
     }
 
     @Test
     @DisplayName("Should throw UsernameNotFoundException when user does not exist")
     void testLoadUserByUsernameWhenUserDoesNotExist() {
         // Arrange
-        when(userRepo.findByUsername("nonexistent")).thenReturn(null);
+        when(userRepo.findCredentialsByUsername("nonexistent")).thenReturn(null);
 
         // Act & Assert
         UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> {
@@ -63,14 +77,14 @@ class MyUserDetailsServiceTest {
         });
 
         assertEquals("No User Found!!!", exception.getMessage());
-        verify(userRepo, times(1)).findByUsername("nonexistent");
+        verify(userRepo, times(1)).findCredentialsByUsername("nonexistent");
     }
 
     @Test
     @DisplayName("Should throw UsernameNotFoundException when username is null")
     void testLoadUserByUsernameWithNullUsername() {
         // Arrange
-        when(userRepo.findByUsername(null)).thenReturn(null);
+        when(userRepo.findCredentialsByUsername(null)).thenReturn(null);
 
         // Act & Assert
         UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> {
@@ -78,14 +92,14 @@ class MyUserDetailsServiceTest {
         });
 
         assertEquals("No User Found!!!", exception.getMessage());
-        verify(userRepo, times(1)).findByUsername(null);
+        verify(userRepo, times(1)).findCredentialsByUsername(null);
     }
 
     @Test
     @DisplayName("Should throw UsernameNotFoundException when username is empty")
     void testLoadUserByUsernameWithEmptyUsername() {
         // Arrange
-        when(userRepo.findByUsername("")).thenReturn(null);
+        when(userRepo.findCredentialsByUsername("")).thenReturn(null);
 
         // Act & Assert
         UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> {
@@ -93,7 +107,7 @@ class MyUserDetailsServiceTest {
         });
 
         assertEquals("No User Found!!!", exception.getMessage());
-        verify(userRepo, times(1)).findByUsername("");
+        verify(userRepo, times(1)).findCredentialsByUsername("");
     }
 
     @Test
@@ -101,7 +115,7 @@ class MyUserDetailsServiceTest {
     void testLoadUserByUsernameWithSpecialCharacters() {
         // Arrange
         Users specialUser = new Users(2, "user@domain.com", "password");
-        when(userRepo.findByUsername("user@domain.com")).thenReturn(specialUser);
+        when(userRepo.findCredentialsByUsername("user@domain.com")).thenReturn(credentials(specialUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("user@domain.com");
@@ -111,7 +125,7 @@ class MyUserDetailsServiceTest {
         assertEquals("user@domain.com", userDetails.getUsername());
         assertEquals("password", userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername("user@domain.com");
+        verify(userRepo, times(1)).findCredentialsByUsername("user@domain.com");
     }
 
     @Test
@@ -119,7 +133,7 @@ class MyUserDetailsServiceTest {
     void testLoadUserByUsernameWithUnicodeCharacters() {
         // Arrange
         Users unicodeUser = new Users(3, "用户", "密码");
-        when(userRepo.findByUsername("用户")).thenReturn(unicodeUser);
+        when(userRepo.findCredentialsByUsername("用户")).thenReturn(credentials(unicodeUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("用户");
@@ -129,7 +143,7 @@ class MyUserDetailsServiceTest {
         assertEquals("用户", userDetails.getUsername());
         assertEquals("密码", userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername("用户");
+        verify(userRepo, times(1)).findCredentialsByUsername("用户");
     }
 
     @Test
@@ -137,7 +151,7 @@ class MyUserDetailsServiceTest {
     void testLoadUserByUsernameWithNullPassword() {
         // Arrange
         Users userWithNullPassword = new Users(4, "nullpassuser", null);
-        when(userRepo.findByUsername("nullpassuser")).thenReturn(userWithNullPassword);
+        when(userRepo.findCredentialsByUsername("nullpassuser")).thenReturn(credentials(userWithNullPassword));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("nullpassuser");
@@ -147,7 +161,7 @@ class MyUserDetailsServiceTest {
         assertEquals("nullpassuser", userDetails.getUsername());
         assertNull(userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername("nullpassuser");
+        verify(userRepo, times(1)).findCredentialsByUsername("nullpassuser");
     }
 
     @Test
@@ -155,7 +169,7 @@ class MyUserDetailsServiceTest {
     void testLoadUserByUsernameWithEmptyPassword() {
         // Arrange
         Users userWithEmptyPassword = new Users(5, "emptypassuser", "");
-        when(userRepo.findByUsername("emptypassuser")).thenReturn(userWithEmptyPassword);
+        when(userRepo.findCredentialsByUsername("emptypassuser")).thenReturn(credentials(userWithEmptyPassword));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("emptypassuser");
@@ -165,7 +179,7 @@ class MyUserDetailsServiceTest {
         assertEquals("emptypassuser", userDetails.getUsername());
         assertEquals("", userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername("emptypassuser");
+        verify(userRepo, times(1)).findCredentialsByUsername("emptypassuser");
     }
 
     @Test
@@ -173,7 +187,7 @@ class MyUserDetailsServiceTest {
     void testLoadUserByUsernameWithZeroId() {
         // Arrange
         Users zeroIdUser = new Users(0, "zeroiduser", "password");
-        when(userRepo.findByUsername("zeroiduser")).thenReturn(zeroIdUser);
+        when(userRepo.findCredentialsByUsername("zeroiduser")).thenReturn(credentials(zeroIdUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("zeroiduser");
@@ -183,7 +197,7 @@ class MyUserDetailsServiceTest {
         assertEquals("zeroiduser", userDetails.getUsername());
         assertEquals("password", userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername("zeroiduser");
+        verify(userRepo, times(1)).findCredentialsByUsername("zeroiduser");
     }
 
     @Test
@@ -191,7 +205,7 @@ class MyUserDetailsServiceTest {
     void testLoadUserByUsernameWithNegativeId() {
         // Arrange
         Users negativeIdUser = new Users(-1, "negativeiduser", "password");
-        when(userRepo.findByUsername("negativeiduser")).thenReturn(negativeIdUser);
+        when(userRepo.findCredentialsByUsername("negativeiduser")).thenReturn(credentials(negativeIdUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("negativeiduser");
@@ -201,7 +215,7 @@ class MyUserDetailsServiceTest {
         assertEquals("negativeiduser", userDetails.getUsername());
         assertEquals("password", userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername("negativeiduser");
+        verify(userRepo, times(1)).findCredentialsByUsername("negativeiduser");
     }
 
     @Test
@@ -210,7 +224,7 @@ class MyUserDetailsServiceTest {
         // Arrange
         String longUsername = "a".repeat(1000);
         Users longUsernameUser = new Users(6, longUsername, "password");
-        when(userRepo.findByUsername(longUsername)).thenReturn(longUsernameUser);
+        when(userRepo.findCredentialsByUsername(longUsername)).thenReturn(credentials(longUsernameUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername(longUsername);
@@ -220,7 +234,7 @@ class MyUserDetailsServiceTest {
         assertEquals(longUsername, userDetails.getUsername());
         assertEquals("password", userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername(longUsername);
+        verify(userRepo, times(1)).findCredentialsByUsername(longUsername);
     }
 
     @Test
@@ -229,7 +243,7 @@ class MyUserDetailsServiceTest {
         // Arrange
         String longPassword = "p".repeat(1000);
         Users longPasswordUser = new Users(7, "longpassuser", longPassword);
-        when(userRepo.findByUsername("longpassuser")).thenReturn(longPasswordUser);
+        when(userRepo.findCredentialsByUsername("longpassuser")).thenReturn(credentials(longPasswordUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("longpassuser");
@@ -239,7 +253,7 @@ class MyUserDetailsServiceTest {
         assertEquals("longpassuser", userDetails.getUsername());
         assertEquals(longPassword, userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername("longpassuser");
+        verify(userRepo, times(1)).findCredentialsByUsername("longpassuser");
     }
 
     @Test
@@ -247,7 +261,7 @@ class MyUserDetailsServiceTest {
     void testLoadUserByUsernameWithWhitespace() {
         // Arrange
         Users whitespaceUser = new Users(8, " test user ", "password");
-        when(userRepo.findByUsername(" test user ")).thenReturn(whitespaceUser);
+        when(userRepo.findCredentialsByUsername(" test user ")).thenReturn(credentials(whitespaceUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername(" test user ");
@@ -257,7 +271,7 @@ class MyUserDetailsServiceTest {
         assertEquals(" test user ", userDetails.getUsername());
         assertEquals("password", userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername(" test user ");
+        verify(userRepo, times(1)).findCredentialsByUsername(" test user ");
     }
 
     @Test
@@ -265,7 +279,7 @@ class MyUserDetailsServiceTest {
     void testLoadUserByUsernameWithNumericUsername() {
         // Arrange
         Users numericUser = new Users(9, "12345", "password");
-        when(userRepo.findByUsername("12345")).thenReturn(numericUser);
+        when(userRepo.findCredentialsByUsername("12345")).thenReturn(credentials(numericUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("12345");
@@ -275,7 +289,7 @@ class MyUserDetailsServiceTest {
         assertEquals("12345", userDetails.getUsername());
         assertEquals("password", userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername("12345");
+        verify(userRepo, times(1)).findCredentialsByUsername("12345");
     }
 
     @Test
@@ -283,7 +297,7 @@ class MyUserDetailsServiceTest {
     void testLoadUserByUsernameWithMixedCaseUsername() {
         // Arrange
         Users mixedCaseUser = new Users(10, "TestUser123", "password");
-        when(userRepo.findByUsername("TestUser123")).thenReturn(mixedCaseUser);
+        when(userRepo.findCredentialsByUsername("TestUser123")).thenReturn(credentials(mixedCaseUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("TestUser123");
@@ -293,14 +307,14 @@ class MyUserDetailsServiceTest {
         assertEquals("TestUser123", userDetails.getUsername());
         assertEquals("password", userDetails.getPassword());
 
-        verify(userRepo, times(1)).findByUsername("TestUser123");
+        verify(userRepo, times(1)).findCredentialsByUsername("TestUser123");
     }
 
     @Test
     @DisplayName("Should verify UserPrincipal properties")
     void testUserPrincipalProperties() {
         // Arrange
-        when(userRepo.findByUsername("testuser")).thenReturn(testUser);
+        when(userRepo.findCredentialsByUsername("testuser")).thenReturn(credentials(testUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername("testuser");
@@ -324,7 +338,7 @@ class MyUserDetailsServiceTest {
     @DisplayName("Should handle multiple calls to same username")
     void testMultipleCallsToSameUsername() {
         // Arrange
-        when(userRepo.findByUsername("testuser")).thenReturn(testUser);
+        when(userRepo.findCredentialsByUsername("testuser")).thenReturn(credentials(testUser));
 
         // Act
         UserDetails userDetails1 = userDetailsService.loadUserByUsername("testuser");
@@ -336,20 +350,124 @@ class MyUserDetailsServiceTest {
         assertEquals(userDetails1.getUsername(), userDetails2.getUsername());
         assertEquals(userDetails1.getPassword(), userDetails2.getPassword());
 
-        verify(userRepo, times(2)).findByUsername("testuser");
+        verify(userRepo, times(2)).findCredentialsByUsername("testuser");
     }
 
     @Test
     @DisplayName("Should handle repository exception")
     void testRepositoryException() {
         // Arrange
-        when(userRepo.findByUsername("testuser")).thenThrow(new RuntimeException("Database error"));
+        when(userRepo.findCredentialsByUsername("testuser")).thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
             userDetailsService.loadUserByUsername("testuser");
         });
 
-        verify(userRepo, times(1)).findByUsername("testuser");
+        verify(userRepo, times(1)).findCredentialsByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups from the user cache")
+    void testLoadUserByUsernameUsesCache() {
+        // Arrange
+        userDetailsService = new MyUserDetailsService(userRepo,
+                new CaffeineUserCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry()), new UnknownUsernames());
+        when(userRepo.findCredentialsByUsername("testuser")).thenReturn(credentials(testUser));
+
+        // Act
+        UserDetails userDetails1 = userDetailsService.loadUserByUsername("testuser");
+        UserDetails userDetails2 = userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        assertSame(userDetails1, userDetails2);
+        verify(userRepo, times(1)).findCredentialsByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("Should issue one repository call for a burst of concurrent lookups")
+    void testConcurrentLookupsAreCoalesced() throws Exception {
+        // Arrange
+        int threads = 16;
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        when(userRepo.findCredentialsByUsername("testuser")).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return credentials(testUser);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            // Act
+            List<Future<UserDetails>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    return userDetailsService.loadUserByUsername("testuser");
+                }));
+            }
+            ready.await();
+            start.countDown();
+
+            // Assert
+            for (Future<UserDetails> result : results) {
+                assertEquals("testuser", result.get(5, TimeUnit.SECONDS).getUsername());
+            }
+            verify(userRepo, times(1)).findCredentialsByUsername("testuser");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a recently missing username without querying the repository")
+    void testUnknownUsernameIsNegativelyCached() {
+        // Arrange
+        userDetailsService = new MyUserDetailsService(userRepo, new NullUserCache(),
+                new UnknownUsernames(100, Duration.ofSeconds(30), 0, 0.01, new SimpleMeterRegistry()));
+        when(userRepo.findCredentialsByUsername("ghost")).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+        verify(userRepo, times(1)).findCredentialsByUsername("ghost");
+        verify(userRepo, times(1)).findCredentialsOnPrimary("ghost");
+    }
+
+    @Test
+    @DisplayName("Should confirm a replica miss on the primary before caching it")
+    void testReplicaMissConfirmedOnPrimary() {
+        // Arrange: the replica has not caught up with a registration yet
+        userDetailsService = new MyUserDetailsService(userRepo, new NullUserCache(),
+                new UnknownUsernames(100, Duration.ofSeconds(30), 0, 0.01, new SimpleMeterRegistry()));
+        when(userRepo.findCredentialsByUsername("newuser")).thenReturn(null);
+        when(userRepo.findCredentialsOnPrimary("newuser")).thenReturn(credentials(new Users(5, "newuser", "secret")));
+
+        // Act
+        UserDetails result = userDetailsService.loadUserByUsername("newuser");
+
+        // Assert
+        assertEquals("newuser", result.getUsername());
+        verify(userRepo, times(1)).findCredentialsOnPrimary("newuser");
+    }
+
+    @Test
+    @DisplayName("Should persist an upgraded hash and evict the cached principal")
+    void testUpdatePassword() {
+        // Arrange
+        CaffeineUserCache userCache = new CaffeineUserCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        userDetailsService = new MyUserDetailsService(userRepo, userCache, new UnknownUsernames());
+        when(userRepo.findCredentialsByUsername("testuser")).thenReturn(credentials(testUser));
+        UserDetails loaded = userDetailsService.loadUserByUsername("testuser");
+
+        // Act
+        UserDetails updated = userDetailsService.updatePassword(loaded, "{bcrypt}$2a$13$upgraded");
+
+        // Assert
+        assertEquals("{bcrypt}$2a$13$upgraded", updated.getPassword());
+        assertEquals("testuser", updated.getUsername());
+        assertNull(userCache.getUserFromCache("testuser"));
+        verify(userRepo, times(1)).updatePassword("testuser", "{bcrypt}$2a$13$upgraded");
     }
-}
\ No newline at end of file
+}
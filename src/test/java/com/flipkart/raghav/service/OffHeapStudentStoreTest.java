@@ -0,0 +1,159 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapStudentStore Tests")
+class OffHeapStudentStoreTest {
+
+    private OffHeapStudentStore store;
+
+    @BeforeEach
+    void setUp() {
+        // tiny chunks so the tests cross chunk boundaries
+        store = new OffHeapStudentStore(8, "");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    private static List<Integer> ids(List<Student> students) {
+        return students.stream().map(Student::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should save, find and update students by id")
+    void testSaveAndFindById() {
+        store.save(new Student(7, "Asha", 88));
+        store.save(new Student(8, null, 10));
+        store.save(new Student(9, "", 20));
+        store.save(new Student(7, "Zoë", 91));
+
+        assertEquals(new Student(7, "Zoë", 91), store.findById(7));
+        assertEquals(new Student(8, null, 10), store.findById(8));
+        assertEquals(new Student(9, "", 20), store.findById(9));
+        assertNull(store.findById(10));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    @DisplayName("Should reject names that do not fit a record, leaving the batch unwritten")
+    void testLongNameRejected() {
+        String tooLong = "x".repeat(OffHeapStudentStore.MAX_NAME_BYTES + 1);
+        String fits = "é".repeat(OffHeapStudentStore.MAX_NAME_BYTES / 2);
+
+        store.save(new Student(1, fits, 1));
+
+        assertEquals(fits, store.findById(1).getName());
+        assertThrows(IllegalArgumentException.class, () -> store.save(new Student(2, tooLong, 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.saveAll(List.of(new Student(3, "ok", 1), new Student(4, tooLong, 1))));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Should page by id across chunks even when ids arrive out of order")
+    void testFindPage() {
+        for (int id = 30; id >= 1; id--) {
+            store.save(new Student(id, "s" + id, id));
+        }
+
+        assertEquals(List.of(1, 2, 3), ids(store.findPage(0, 3)));
+        assertEquals(List.of(9, 10, 11), ids(store.findPage(8, 3)));
+        assertTrue(store.findPage(30, 3).isEmpty());
+
+        store.save(new Student(0, "s0", 0));
+        assertEquals(List.of(0, 1), ids(store.findPage(-1, 2)));
+    }
+
+    @Test
+    @DisplayName("Should agree with the in-memory store on queries and the leaderboard")
+    void testMatchesInMemoryStore() {
+        // Arrange
+        InMemoryStudentStore reference = new InMemoryStudentStore(List.of());
+        Random random = new Random(42);
+        String[] names = {"A", "Ab", "Abc", "B", "Ba", "Bz", "C"};
+        for (int i = 0; i < 3_000; i++) {
+            String name = random.nextInt(20) == 0 ? null : names[random.nextInt(names.length)];
+            Student student = new Student(random.nextInt(2_000) - 1_000, name, random.nextInt(101));
+            store.save(student);
+            reference.save(student);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            Integer min = random.nextBoolean() ? random.nextInt(101) : null;
+            Integer max = random.nextBoolean() ? (min == null ? 0 : min) + random.nextInt(50) : null;
+            String prefix = random.nextBoolean() ? names[random.nextInt(names.length)] : null;
+            StudentQuery.SortField sort = StudentQuery.SortField.values()[random.nextInt(3)];
+            StudentQuery query = new StudentQuery(min, max, prefix, sort, random.nextBoolean(), 1 + random.nextInt(50));
+
+            // Act / Assert
+            assertEquals(reference.query(query), store.query(query), query::toString);
+        }
+        assertEquals(reference.top(100), store.top(100));
+        assertEquals(reference.stats(50, 90), store.stats(50, 90));
+        assertEquals(reference.findAll(), store.findPage(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Should keep records in a memory-mapped file when one is configured")
+    void testMappedFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("students.dat");
+        OffHeapStudentStore mapped = new OffHeapStudentStore(8, file.toString());
+        try {
+            for (int id = 1; id <= 20; id++) {
+                mapped.save(new Student(id, "s" + id, id));
+            }
+
+            assertEquals(new Student(17, "s17", 17), mapped.findById(17));
+            assertEquals(3L * 8 * OffHeapStudentStore.RECORD_BYTES, Files.size(file));
+            assertEquals(Files.size(file), mapped.offHeapBytes());
+        } finally {
+            mapped.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should hold only its index on the heap")
+    void testHeapHoldsOnlyTheIndex() {
+        int count = 200_000;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        long before = usedHeapAfterGc(memory);
+        OffHeapStudentStore large = new OffHeapStudentStore(65_536, "");
+        for (int id = 0; id < count; id++) {
+            large.save(new Student(id, "student-" + (id % 5_000), id % 101));
+        }
+        long heapBytes = usedHeapAfterGc(memory) - before;
+        Reference.reachabilityFence(large);
+
+        // the id table is at most 32 bytes a student; the records are 64 off-heap
+        assertEquals(count, large.size());
+        assertTrue(large.offHeapBytes() >= (long) count * OffHeapStudentStore.RECORD_BYTES);
+        assertTrue(heapBytes < count * 40L, "heap grew by " + heapBytes + " bytes");
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
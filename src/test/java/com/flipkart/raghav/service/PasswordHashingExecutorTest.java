@@ -0,0 +1,91 @@
+package com.flipkart.raghav.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PasswordHashingExecutor Tests")
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(1, 1, meterRegistry);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run the task and record its queue wait")
+    void testSubmit() throws Exception {
+        // Act
+        String result = executor.submit(() -> "hashed").get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("hashed", result);
+        assertEquals(1, meterRegistry.get("auth.hashing.wait").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should propagate exceptions thrown by the task")
+    void testSubmitPropagatesException() {
+        // Act
+        CompletableFuture<String> future = executor.submit(() -> {
+            throw new IllegalStateException("bad credentials");
+        });
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Should reject immediately once the worker and queue are full")
+    void testRejectsWhenSaturated() throws Exception {
+        // Arrange
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<String> busy = executor.submit(() -> {
+            running.countDown();
+            awaitRelease();
+            return "first";
+        });
+        running.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = executor.submit(() -> "second");
+
+        // Act & Assert
+        assertEquals(1, executor.queueDepth());
+        assertEquals(1.0, meterRegistry.get("auth.hashing.queue.depth").gauge().value());
+        assertThrows(PasswordHashingRejectedException.class, () -> executor.submit(() -> "third"));
+        assertEquals(1.0, meterRegistry.get("auth.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("first", busy.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
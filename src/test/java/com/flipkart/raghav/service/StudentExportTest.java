@@ -0,0 +1,91 @@
+package com.flipkart.raghav.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flipkart.raghav.model.Student;
+import com.flipkart.raghav.model.StudentQuery;
+import com.flipkart.raghav.model.StudentStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StudentExport Tests")
+class StudentExportTest {
+
+    private static StudentExport export(StudentStore store, int pageSize) {
+        StudentExport export = new StudentExport(new ObjectMapper(), pageSize);
+        ReflectionTestUtils.setField(export, "studentStore", store);
+        return export;
+    }
+
+    private static InMemoryStudentStore store(int count) {
+        InMemoryStudentStore store = new InMemoryStudentStore(List.of());
+        for (int id = 1; id <= count; id++) {
+            store.save(new Student(id, "s" + id, id % 100));
+        }
+        return store;
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line")
+    void testWritesNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = export(store(3), 2).writeNdjson(out);
+
+        assertEquals(3, written);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(new Student(2, "s2", 2), new ObjectMapper().readValue(lines[1], Student.class));
+        assertEquals("{\"id\":2,\"name\":\"s2\",\"marks\":2}", lines[1]);
+    }
+
+    @Test
+    @DisplayName("Should write nothing for an empty store")
+    void testEmptyStore() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, export(store(0), 10).writeNdjson(out));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    @DisplayName("Should flush after every page and never fetch more than a page")
+    void testFlushesPerPage() throws Exception {
+        InMemoryStudentStore store = store(25);
+        List<Integer> pageSizes = new ArrayList<>();
+        StudentStore recording = new StudentStore() {
+            public Student save(Student student) { return store.save(student); }
+            public List<Student> saveAll(List<Student> students) { return store.saveAll(students); }
+            public Student findById(int id) { return store.findById(id); }
+            public int size() { return store.size(); }
+            public List<Student> query(StudentQuery query) { return store.query(query); }
+            public List<Student> top(int k) { return store.top(k); }
+            public StudentStats stats(double... percentiles) { return store.stats(percentiles); }
+            public List<Student> findPage(int afterId, int limit) {
+                List<Student> page = store.findPage(afterId, limit);
+                pageSizes.add(page.size());
+                return page;
+            }
+        };
+        int[] flushes = {0};
+        OutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+
+        export(recording, 10).writeNdjson(out);
+
+        assertEquals(List.of(10, 10, 5), pageSizes);
+        assertEquals(3, flushes[0]);
+    }
+}
@@ -0,0 +1,304 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StudentLog Tests")
+class StudentLogTest {
+
+    @TempDir
+    Path dir;
+
+    private LoggedStudentStore open(StudentLog log) {
+        return new LoggedStudentStore(new InMemoryStudentStore(List.of()), log);
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay acknowledged writes after a restart")
+    void testRecoverFromLog() throws Exception {
+        // Arrange
+        try (StudentLog log = new StudentLog(dir, 1_000)) {
+            LoggedStudentStore store = open(log);
+            store.save(new Student(1, "Asha", 80));
+            store.saveAll(List.of(new Student(2, null, 70), new Student(3, "Zoë", 60)));
+            store.save(new Student(1, "Asha", 95));
+        }
+
+        // Act
+        try (StudentLog log = new StudentLog(dir, 1_000)) {
+            LoggedStudentStore store = open(log);
+
+            // Assert
+            assertEquals(4, store.recovered());
+            assertEquals(3, store.size());
+            assertEquals(new Student(1, "Asha", 95), store.findById(1));
+            assertEquals(new Student(2, null, 70), store.findById(2));
+            assertEquals(new Student(3, "Zoë", 60), store.findById(3));
+        }
+    }
+
+    @Test
+    @DisplayName("Should compact into a snapshot and recover from it plus the log tail")
+    void testSnapshotAndTail() throws Exception {
+        try (StudentLog log = new StudentLog(dir, 1_000)) {
+            LoggedStudentStore store = open(log);
+            for (int round = 0; round < 3; round++) {
+                for (int id = 0; id < 100; id++) {
+                    store.save(new Student(id, "s" + id, round));
+                }
+            }
+            log.snapshot(store.delegate());
+            store.save(new Student(5, "tail", 99));
+            store.save(new Student(500, "new", 1));
+
+            assertEquals(2, log.sinceSnapshot());
+            assertEquals(List.of("snapshot-2.bin", "wal-2.log"), files());
+        }
+
+        try (StudentLog log = new StudentLog(dir, 1_000)) {
+            LoggedStudentStore store = open(log);
+
+            // 100 from the snapshot instead of 300 logged writes, plus the tail
+            assertEquals(102, store.recovered());
+            assertEquals(101, store.size());
+            assertEquals(new Student(5, "tail", 99), store.findById(5));
+            assertEquals(new Student(6, "s6", 2), store.findById(6));
+        }
+    }
+
+    @Test
+    @DisplayName("Should snapshot in the background once enough writes are logged")
+    void testAutomaticSnapshot() throws Exception {
+        try (StudentLog log = new StudentLog(dir, 50)) {
+            LoggedStudentStore store = open(log);
+            for (int id = 0; id < 60; id++) {
+                store.save(new Student(id, "s" + id, id));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (files().stream().noneMatch(name -> name.endsWith(".bin")) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(files().stream().anyMatch(name -> name.endsWith(".bin")), () -> "files: " + dir);
+        }
+        try (StudentLog log = new StudentLog(dir, 50)) {
+            assertEquals(60, open(log).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should ignore a torn record at the end of the log")
+    void testTornTail() throws Exception {
+        try (StudentLog log = new StudentLog(dir, 1_000)) {
+            LoggedStudentStore store = open(log);
+            store.save(new Student(1, "kept", 10));
+            store.save(new Student(2, "torn", 20));
+        }
+        Path wal = dir.resolve("wal-1.log");
+        try (FileChannel file = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            file.truncate(Files.size(wal) - 3);
+        }
+
+        try (StudentLog log = new StudentLog(dir, 1_000)) {
+            LoggedStudentStore store = open(log);
+            store.save(new Student(3, "after", 30));
+        }
+        try (StudentLog log = new StudentLog(dir, 1_000)) {
+            LoggedStudentStore store = open(log);
+
+            assertEquals(new Student(1, "kept", 10), store.findById(1));
+            assertNull(store.findById(2));
+            assertEquals(new Student(3, "after", 30), store.findById(3));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not log a write the store rejects")
+    void testRejectedWriteNotLogged() throws Exception {
+        try (StudentLog log = new StudentLog(dir, 1_000)) {
+            LoggedStudentStore store = new LoggedStudentStore(new OffHeapStudentStore(16, ""), log);
+            String tooLong = "x".repeat(OffHeapStudentStore.MAX_NAME_BYTES + 1);
+
+            assertThrows(IllegalArgumentException.class, () -> store.save(new Student(1, tooLong, 1)));
+            store.save(new Student(2, "fine", 2));
+        }
+        try (StudentLog log = new StudentLog(dir, 1_000)) {
+            LoggedStudentStore store = new LoggedStudentStore(new OffHeapStudentStore(16, ""), log);
+
+            assertEquals(1, store.recovered());
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse writes without applying them once the log is closed")
+    void testClosedLogRefusesWrites() throws Exception {
+        // Arrange
+        StudentLog log = new StudentLog(dir, 1_000);
+        LoggedStudentStore store = open(log);
+        store.save(new Student(1, "kept", 10));
+        log.close();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> store.save(new Student(2, "lost", 20)));
+        assertThrows(IllegalStateException.class, () -> store.saveAll(List.of(new Student(3, "lost", 30))));
+        assertThrows(IllegalStateException.class, () -> store.save(new Student(1, "changed", 11)));
+        assertEquals(1, store.size());
+        assertEquals(new Student(1, "kept", 10), store.findById(1));
+    }
+
+    @Test
+    @DisplayName("Should share fsyncs between concurrent writers")
+    void testGroupCommit() throws Exception {
+        // Arrange
+        int writers = 16;
+        int perWriter = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (StudentLog log = new StudentLog(dir, 1_000_000)) {
+            LoggedStudentStore store = open(log);
+
+            // Act
+            List<Future<?>> writes = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                writes.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perWriter; i++) {
+                        int id = writer * perWriter + i;
+                        store.save(new Student(id, "s" + id, i % 101));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get(60, TimeUnit.SECONDS);
+            }
+
+            // Assert
+            assertEquals(writers * perWriter, store.size());
+            assertTrue(log.fsyncs() < writers * perWriter, "fsyncs: " + log.fsyncs());
+        } finally {
+            executor.shutdownNow();
+        }
+        try (StudentLog log = new StudentLog(dir, 1_000_000)) {
+            assertEquals(writers * perWriter, open(log).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay contended writes to the state the store ended in")
+    void testContendedWritesReplayInStoreOrder() throws Exception {
+        // Arrange: batches and single writes fight over the same 100 ids
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Student> live;
+
+        try (StudentLog log = new StudentLog(dir, 1_000_000)) {
+            LoggedStudentStore store = open(log);
+
+            // Act
+            List<Future<?>> writes = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                writes.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        if (writer % 2 == 0) {
+                            store.save(new Student((i * 7 + writer) % 100, "w" + writer, i % 101));
+                        } else {
+                            List<Student> batch = new ArrayList<>();
+                            for (int id = (i + writer) % 100; batch.size() < 10; id = (id + 13) % 100) {
+                                batch.add(new Student(id, "w" + writer, (i + id) % 101));
+                            }
+                            store.saveAll(batch);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get(60, TimeUnit.SECONDS);
+            }
+            live = store.findPage(Integer.MIN_VALUE, 100);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        try (StudentLog log = new StudentLog(dir, 1_000_000)) {
+            assertEquals(live, open(log).findPage(Integer.MIN_VALUE, 100));
+        }
+    }
+
+    @Test
+    @Tag("slow")
+    @DisplayName("Should recover 10M students from a snapshot and log tail")
+    void testRecoveryTimeAtTenMillion() throws Exception {
+        // Arrange: a 10M-record snapshot plus a 100k-record tail
+        int students = 10_000_000;
+        int tail = 100_000;
+        try (StudentLog log = new StudentLog(dir, Long.MAX_VALUE)) {
+            LoggedStudentStore store = new LoggedStudentStore(new ColumnarStudentStore(students), log);
+            List<Student> batch = new ArrayList<>(tail);
+            for (int id = 0; id < students; id++) {
+                batch.add(new Student(id, "student-" + (id % 10_000), id % 101));
+                if (batch.size() == tail) {
+                    store.delegate().saveAll(batch);
+                    batch.clear();
+                }
+            }
+            log.snapshot(store.delegate());
+            for (int id = 0; id < tail; id++) {
+                batch.add(new Student(id * 100, "updated", 100));
+            }
+            store.saveAll(batch);
+        }
+
+        // Act
+        long started = System.nanoTime();
+        long recovered;
+        ColumnarStudentStore target = new ColumnarStudentStore(students);
+        try (StudentLog log = new StudentLog(dir, Long.MAX_VALUE)) {
+            recovered = new LoggedStudentStore(target, log).recovered();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // Assert
+        assertEquals(students + tail, recovered);
+        assertEquals(students, target.size());
+        assertEquals(new Student(500, "updated", 100), target.findById(500));
+        assertEquals(new Student(501, "student-501", 97), target.findById(501));
+        assertTrue(millis < TimeUnit.MINUTES.toMillis(2),
+                "recovered " + recovered + " records (" + target.size() + " students) in " + millis + " ms");
+    }
+}
@@ -0,0 +1,61 @@
+package com.flipkart.raghav.service;
+
+import com.flipkart.raghav.model.Student;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@code db/student.sql} the way a deployment would, with Hibernate
+ * creating nothing, so the jpa store starts against exactly that schema.
+ */
+@DataJpaTest(properties = {
+        "students.store=jpa",
+        "spring.datasource.url=jdbc:h2:mem:student-schema;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/student.sql"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaStudentStore.class)
+@DisplayName("Student Schema Tests")
+class StudentSchemaTest {
+
+    @Autowired
+    private JpaStudentStore store;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("Should start the jpa store on the shipped schema with the seed students")
+    void testStoreRunsOnShippedSchema() {
+        // Act
+        store.save(new Student(3, "Asha", 88));
+
+        // Assert: the preload read the seed students before the save
+        assertEquals(2, store.stats().count());
+        assertEquals(new Student(1, "Navin", 60), store.findById(1));
+        assertEquals(List.of(new Student(3, "Asha", 88), new Student(2, "Kiran", 70)), store.top(2));
+    }
+
+    @Test
+    @DisplayName("Should apply the schema again without errors or duplicate seeds")
+    void testSchemaIsRerunnable() {
+        // Act
+        new ResourceDatabasePopulator(new ClassPathResource("db/student.sql")).execute(dataSource);
+
+        // Assert
+        assertEquals(2, store.size());
+    }
+}
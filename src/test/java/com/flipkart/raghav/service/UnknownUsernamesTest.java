@@ -0,0 +1,120 @@
+package com.flipkart.raghav.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UnknownUsernames Tests")
+class UnknownUsernamesTest {
+
+    private static UnknownUsernames negativeCacheOnly() {
+        return new UnknownUsernames(100, Duration.ofSeconds(30), 0, 0.01, new SimpleMeterRegistry());
+    }
+
+    private static UnknownUsernames withBloomFilter() {
+        return new UnknownUsernames(100, Duration.ofSeconds(30), 1000, 0.01, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should remember recorded misses")
+    void testRecordMissing() {
+        UnknownUsernames unknown = negativeCacheOnly();
+
+        unknown.recordMissing("ghost");
+
+        assertTrue(unknown.isKnownMissing("ghost"));
+        assertFalse(unknown.isKnownMissing("other"));
+    }
+
+    @Test
+    @DisplayName("Should forget a miss once the user registers")
+    void testRecordRegisteredClearsMiss() {
+        UnknownUsernames unknown = negativeCacheOnly();
+        unknown.recordMissing("newuser");
+
+        unknown.recordRegistered("newuser");
+
+        assertFalse(unknown.isKnownMissing("newuser"));
+    }
+
+    @Test
+    @DisplayName("Should not record a miss from a lookup that raced the registration")
+    void testMissAfterRegistrationIsIgnored() {
+        UnknownUsernames unknown = negativeCacheOnly();
+        unknown.recordRegistered("newuser");
+
+        // a lookup that started before the registration committed reports it missing afterwards
+        unknown.recordMissing("newuser");
+
+        assertFalse(unknown.isKnownMissing("newuser"));
+    }
+
+    @Test
+    @DisplayName("Should not reject anything with the no-op instance")
+    void testNoOpInstance() {
+        UnknownUsernames unknown = new UnknownUsernames();
+
+        unknown.recordMissing("ghost");
+
+        assertFalse(unknown.isKnownMissing("ghost"));
+        assertFalse(unknown.isKnownMissing(null));
+    }
+
+    @Test
+    @DisplayName("Should not consult the Bloom filter before it is loaded")
+    void testBloomFilterIgnoredUntilLoaded() {
+        UnknownUsernames unknown = withBloomFilter();
+
+        assertFalse(unknown.isKnownMissing("anyone"));
+    }
+
+    @Test
+    @DisplayName("Should reject names missing from the loaded Bloom filter")
+    void testBloomFilterRejectsUnknownNames() {
+        UnknownUsernames unknown = withBloomFilter();
+
+        unknown.load(List.of("alice", "bob"));
+
+        assertFalse(unknown.isKnownMissing("alice"));
+        assertFalse(unknown.isKnownMissing("bob"));
+        assertTrue(unknown.isKnownMissing("mallory"));
+    }
+
+    @Test
+    @DisplayName("Should accept names registered after the Bloom filter was loaded")
+    void testBloomFilterLearnsRegistrations() {
+        UnknownUsernames unknown = withBloomFilter();
+        unknown.load(List.of("alice"));
+
+        unknown.recordRegistered("carol");
+
+        assertFalse(unknown.isKnownMissing("carol"));
+    }
+
+    @Test
+    @DisplayName("Should keep the Bloom filter false positive rate near the target")
+    void testBloomFilterFalsePositiveRate() {
+        UsernameBloomFilter filter = new UsernameBloomFilter(10_000, 0.01);
+        List<String> known = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            known.add("user" + i);
+            filter.put("user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("stranger" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(known.stream().allMatch(filter::mightContain));
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
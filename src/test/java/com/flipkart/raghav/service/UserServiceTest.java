@@ -1,18 +1,21 @@
 package com.flipkart.raghav.service;
 
+import com.flipkart.raghav.model.PasswordChange;
+import com.flipkart.raghav.model.UserPrincipal;
 import com.flipkart.raghav.model.Users;
 import com.flipkart.raghav.repository.UserRepo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,7 +34,12 @@ class UserServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
-    @InjectMocks
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private UnknownUsernames unknownUsernames;
+
     private UserService userService;
 
     private Users testUser;
@@ -39,6 +47,8 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
+        userService = new UserService(userRepo, jwtService, authenticationManager, new UserVersions(),
+                userCache, unknownUsernames, new BCryptPasswordEncoder(12));
         testUser = new Users(1, "testuser", "password123");
         testUserWithEncodedPassword = new Users(1, "testuser", "$2a$12$encodedpassword");
     }
@@ -47,7 +57,7 @@ class UserServiceTest {
     @DisplayName("Should register user with encoded password")
     void testRegisterUser() {
         // Arrange
-        when(userRepo.save(any(Users.class))).thenReturn(testUserWithEncodedPassword);
+        when(userRepo.saveAndFlush(any(Users.class))).thenReturn(testUserWithEncodedPassword);
 
         // Act
         Users registeredUser = userService.register(testUser);
@@ -57,10 +67,10 @@ class UserServiceTest {
         assertEquals("testuser", registeredUser.getUsername());
 
         // Verify password was encoded
-        verify(userRepo, times(1)).save(any(Users.class));
+        verify(userRepo, times(1)).saveAndFlush(any(Users.class));
 
         // Verify the saved user has encoded password
-        Users savedUser = userRepo.save(testUser);
+        Users savedUser = userRepo.saveAndFlush(testUser);
         assertNotEquals("password123", savedUser.getPassword());
     }
 
@@ -81,7 +91,7 @@ class UserServiceTest {
     void testRegisterUserWithEmptyPassword() {
         // Arrange
         Users userWithEmptyPassword = new Users(1, "testuser", "");
-        when(userRepo.save(any(Users.class))).thenReturn(userWithEmptyPassword);
+        when(userRepo.saveAndFlush(any(Users.class))).thenReturn(userWithEmptyPassword);
 
         // Act
         Users registeredUser = userService.register(userWithEmptyPassword);
@@ -90,7 +100,7 @@ class UserServiceTest {
         assertNotNull(registeredUser);
         assertEquals("testuser", registeredUser.getUsername());
 
-        verify(userRepo, times(1)).save(any(Users.class));
+        verify(userRepo, times(1)).saveAndFlush(any(Users.class));
     }
 
     @Test
@@ -98,7 +108,7 @@ class UserServiceTest {
     void testRegisterUserWithSpecialCharacters() {
         // Arrange
         Users userWithSpecialPassword = new Users(1, "testuser", "p@ssw0rd!@#$%");
-        when(userRepo.save(any(Users.class))).thenReturn(userWithSpecialPassword);
+        when(userRepo.saveAndFlush(any(Users.class))).thenReturn(userWithSpecialPassword);
 
         // Act
         Users registeredUser = userService.register(userWithSpecialPassword);
@@ -107,7 +117,7 @@ class UserServiceTest {
         assertNotNull(registeredUser);
         assertEquals("testuser", registeredUser.getUsername());
 
-        verify(userRepo, times(1)).save(any(Users.class));
+        verify(userRepo, times(1)).saveAndFlush(any(Users.class));
     }
 
     @Test
@@ -115,7 +125,7 @@ class UserServiceTest {
     void testRegisterUserWithUnicodeCharacters() {
         // Arrange
         Users userWithUnicode = new Users(1, "用户", "密码");
-        when(userRepo.save(any(Users.class))).thenReturn(userWithUnicode);
+        when(userRepo.saveAndFlush(any(Users.class))).thenReturn(userWithUnicode);
 
         // Act
         Users registeredUser = userService.register(userWithUnicode);
@@ -124,7 +134,7 @@ class UserServiceTest {
         assertNotNull(registeredUser);
         assertEquals("用户", registeredUser.getUsername());
 
-        verify(userRepo, times(1)).save(any(Users.class));
+        verify(userRepo, times(1)).saveAndFlush(any(Users.class));
     }
 
     @Test
@@ -132,7 +142,7 @@ class UserServiceTest {
     void testRegisterUserWithNullUsername() {
         // Arrange
         Users userWithNullUsername = new Users(1, null, "password");
-        when(userRepo.save(any(Users.class))).thenReturn(userWithNullUsername);
+        when(userRepo.saveAndFlush(any(Users.class))).thenReturn(userWithNullUsername);
 
         // Act
         Users registeredUser = userService.register(userWithNullUsername);
@@ -141,7 +151,7 @@ class UserServiceTest {
         assertNotNull(registeredUser);
         assertNull(registeredUser.getUsername());
 
-        verify(userRepo, times(1)).save(any(Users.class));
+        verify(userRepo, times(1)).saveAndFlush(any(Users.class));
     }
 
     @Test
@@ -149,7 +159,7 @@ class UserServiceTest {
     void testRegisterUserWithZeroId() {
         // Arrange
         Users userWithZeroId = new Users(0, "testuser", "password");
-        when(userRepo.save(any(Users.class))).thenReturn(userWithZeroId);
+        when(userRepo.saveAndFlush(any(Users.class))).thenReturn(userWithZeroId);
 
         // Act
         Users registeredUser = userService.register(userWithZeroId);
@@ -158,24 +168,24 @@ class UserServiceTest {
         assertNotNull(registeredUser);
         assertEquals(0, registeredUser.getId());
 
-        verify(userRepo, times(1)).save(any(Users.class));
+        verify(userRepo, times(1)).saveAndFlush(any(Users.class));
     }
 
     @Test
-    @DisplayName("Should register user with negative id")
+    @DisplayName("Should ignore a client-supplied negative id")
     void testRegisterUserWithNegativeId() {
         // Arrange
         Users userWithNegativeId = new Users(-1, "testuser", "password");
-        when(userRepo.save(any(Users.class))).thenReturn(userWithNegativeId);
+        when(userRepo.saveAndFlush(any(Users.class))).thenReturn(userWithNegativeId);
 
         // Act
         Users registeredUser = userService.register(userWithNegativeId);
 
         // Assert
         assertNotNull(registeredUser);
-        assertEquals(-1, registeredUser.getId());
+        assertEquals(0, registeredUser.getId());
 
-        verify(userRepo, times(1)).save(any(Users.class));
+        verify(userRepo, times(1)).saveAndFlush(any(Users.class));
     }
 
     @Test
@@ -397,14 +407,14 @@ class UserServiceTest {
     @DisplayName("Should handle repository exception during registration")
     void testRegisterUserWithRepositoryException() {
         // Arrange
-        when(userRepo.save(any(Users.class))).thenThrow(new RuntimeException("Database error"));
+        when(userRepo.saveAndFlush(any(Users.class))).thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
             userService.register(testUser);
         });
 
-        verify(userRepo, times(1)).save(any(Users.class));
+        verify(userRepo, times(1)).saveAndFlush(any(Users.class));
     }
 
     @Test
@@ -433,12 +443,105 @@ class UserServiceTest {
         // 12
         // We can't directly test the encoder instance, but we can verify the behavior
         Users userToRegister = new Users(1, "testuser", "password123");
-        when(userRepo.save(any(Users.class))).thenReturn(userToRegister);
+        when(userRepo.saveAndFlush(any(Users.class))).thenReturn(userToRegister);
 
         // Act
         userService.register(userToRegister);
 
         // Assert - verify that save was called with a user that has encoded password
-        verify(userRepo, times(1)).save(any(Users.class));
+        verify(userRepo, times(1)).saveAndFlush(any(Users.class));
+    }
+
+    @Test
+    @DisplayName("Should reject registering a username that already exists")
+    void testRegisterExistingUsernameIsRejected() {
+        // Arrange
+        when(userRepo.findByUsername("testuser")).thenReturn(new Users(1, "testuser", "old", 2));
+
+        // Act & Assert
+        assertThrows(UsernameTakenException.class, () -> userService.register(new Users(1, "testuser", "password123")));
+        verify(userRepo, never()).saveAndFlush(any(Users.class));
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    @DisplayName("Should report a concurrent registration of the same username as taken")
+    void testRegisterRaceIsRejected() {
+        // Arrange
+        when(userRepo.saveAndFlush(any(Users.class))).thenThrow(new DataIntegrityViolationException("ux_users_username"));
+
+        // Act & Assert
+        assertThrows(UsernameTakenException.class, () -> userService.register(testUser));
+    }
+
+    @Test
+    @DisplayName("Should change the password and bump the token version")
+    void testChangePasswordBumpsTokenVersion() {
+        // Arrange
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        Users stored = new Users(1, "testuser", encoder.encode("old"), 2);
+        userService = new UserService(userRepo, jwtService, authenticationManager, new UserVersions(),
+                userCache, unknownUsernames, encoder);
+        when(userRepo.findByUsername("testuser")).thenReturn(stored);
+
+        // Act
+        userService.changePassword("testuser", new PasswordChange("old", "new"));
+
+        // Assert
+        assertEquals(3, stored.getTokenVersion());
+        assertTrue(encoder.matches("new", stored.getPassword()));
+        verify(userRepo, times(1)).save(stored);
+        verify(userCache, times(1)).removeUserFromCache("testuser");
+    }
+
+    @Test
+    @DisplayName("Should refuse a password change when the current password is wrong")
+    void testChangePasswordRequiresCurrentPassword() {
+        // Arrange
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        Users stored = new Users(1, "testuser", encoder.encode("old"), 2);
+        userService = new UserService(userRepo, jwtService, authenticationManager, new UserVersions(),
+                userCache, unknownUsernames, encoder);
+        when(userRepo.findByUsername("testuser")).thenReturn(stored);
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class,
+                () -> userService.changePassword("testuser", new PasswordChange("guess", "new")));
+        assertEquals(2, stored.getTokenVersion());
+        verify(userRepo, never()).save(any(Users.class));
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    @DisplayName("Should issue a claims token for the authenticated principal")
+    void testVerifyUsesAuthenticatedPrincipal() {
+        // Arrange
+        UserPrincipal principal = new UserPrincipal(testUser);
+        Authentication mockAuthentication = mock(Authentication.class);
+        when(mockAuthentication.isAuthenticated()).thenReturn(true);
+        when(mockAuthentication.getPrincipal()).thenReturn(principal);
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(mockAuthentication);
+        when(jwtService.generateClaimsToken(principal)).thenReturn("claims.token.here");
+
+        // Act
+        String result = userService.verify(testUser);
+
+        // Assert
+        assertEquals("claims.token.here", result);
+        verify(jwtService, never()).generateToken(anyString());
+    }
+
+    @Test
+    @DisplayName("Should clear the username from the unknown-user cache on registration")
+    void testRegisterRecordsKnownUser() {
+        // Arrange
+        when(userRepo.saveAndFlush(any(Users.class))).thenReturn(testUserWithEncodedPassword);
+
+        // Act
+        userService.register(testUser);
+
+        // Assert
+        verify(unknownUsernames, times(1)).recordRegistered("testuser");
     }
-}
\ No newline at end of file
+}
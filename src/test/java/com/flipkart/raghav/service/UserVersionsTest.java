@@ -0,0 +1,51 @@
+package com.flipkart.raghav.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UserVersions Tests")
+class UserVersionsTest {
+
+    private UserVersions userVersions;
+
+    @BeforeEach
+    void setUp() {
+        userVersions = new UserVersions();
+    }
+
+    @Test
+    @DisplayName("Should trust tokens for users it has not seen")
+    void testUnknownUserIsNotStale() {
+        assertFalse(userVersions.isStale("testuser", 0));
+    }
+
+    @Test
+    @DisplayName("Should flag tokens older than the recorded version")
+    void testOlderVersionIsStale() {
+        userVersions.record("testuser", 2);
+
+        assertTrue(userVersions.isStale("testuser", 1));
+        assertFalse(userVersions.isStale("testuser", 2));
+        assertFalse(userVersions.isStale("testuser", 3));
+    }
+
+    @Test
+    @DisplayName("Should never move the recorded version backwards")
+    void testRecordKeepsHighestVersion() {
+        userVersions.record("testuser", 5);
+        userVersions.record("testuser", 1);
+
+        assertTrue(userVersions.isStale("testuser", 4));
+    }
+
+    @Test
+    @DisplayName("Should ignore null usernames")
+    void testNullUsername() {
+        userVersions.record(null, 1);
+
+        assertFalse(userVersions.isStale("testuser", 0));
+    }
+}
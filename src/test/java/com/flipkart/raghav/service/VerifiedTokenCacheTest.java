@@ -0,0 +1,152 @@
+package com.flipkart.raghav.service;
+
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("VerifiedTokenCache Tests")
+class VerifiedTokenCacheTest {
+
+    private JwtKeyRing keyRing;
+    private JWTService jwtService;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger verifications;
+    private Function<String, VerifiedToken> countingVerifier;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = new JwtKeyRing();
+        jwtService = new JWTService(keyRing);
+        meterRegistry = new SimpleMeterRegistry();
+        verifications = new AtomicInteger();
+        countingVerifier = token -> {
+            verifications.incrementAndGet();
+            return jwtService.verify(token);
+        };
+    }
+
+    @Test
+    @DisplayName("Should verify a token only once while it is cached")
+    void testCachesVerifiedToken() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistry, keyRing);
+        String token = jwtService.generateToken("testuser");
+
+        VerifiedToken first = cache.getOrVerify(token, countingVerifier);
+        VerifiedToken second = cache.getOrVerify(token, countingVerifier);
+
+        assertEquals("testuser", first.subject());
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    @DisplayName("Should keep different tokens apart")
+    void testDifferentTokens() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistry, keyRing);
+
+        VerifiedToken user1 = cache.getOrVerify(jwtService.generateToken("user1"), countingVerifier);
+        VerifiedToken user2 = cache.getOrVerify(jwtService.generateToken("user2"), countingVerifier);
+
+        assertEquals("user1", user1.subject());
+        assertEquals("user2", user2.subject());
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens that fail verification")
+    void testFailedVerificationIsNotCached() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistry, keyRing);
+        String token = jwtService.generateToken("testuser");
+        String tampered = token.substring(0, token.length() - 5) + "XXXXX";
+
+        assertThrows(Exception.class, () -> cache.getOrVerify(tampered, countingVerifier));
+        assertThrows(Exception.class, () -> cache.getOrVerify(tampered, countingVerifier));
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should not serve expired tokens from the cache")
+    void testExpiredTokenIsNotServed() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistry, keyRing);
+        VerifiedToken expired = VerifiedToken.of(Jwts.claims()
+                .subject("testuser")
+                .expiration(new Date(System.currentTimeMillis() - 1000))
+                .build());
+
+        cache.getOrVerify("expired", token -> {
+            verifications.incrementAndGet();
+            return expired;
+        });
+        cache.getOrVerify("expired", token -> {
+            verifications.incrementAndGet();
+            return expired;
+        });
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    @DisplayName("Should not serve tokens whose signing key was retired")
+    void testRetiredKeyIsNotServed() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistry, keyRing);
+        String oldKid = keyRing.activeKeyId();
+        String token = jwtService.generateToken("testuser");
+        cache.getOrVerify(token, countingVerifier);
+
+        keyRing.addKey("k2", Jwts.SIG.HS256.key().build());
+        keyRing.activate("k2");
+        keyRing.retire(oldKid);
+
+        assertThrows(Exception.class, () -> cache.getOrVerify(token, countingVerifier));
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should stay within the configured maximum size")
+    void testMaximumSize() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(5, meterRegistry, keyRing);
+
+        for (int i = 0; i < 50; i++) {
+            cache.getOrVerify(jwtService.generateToken("user" + i), countingVerifier);
+        }
+
+        assertTrue(cache.size() <= 5);
+    }
+
+    @Test
+    @DisplayName("Should bypass the cache when max size is zero")
+    void testDisabled() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(0, meterRegistry, keyRing);
+        String token = jwtService.generateToken("testuser");
+
+        cache.getOrVerify(token, countingVerifier);
+        cache.getOrVerify(token, countingVerifier);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    @DisplayName("Should publish hit and miss metrics")
+    void testMetrics() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistry, keyRing);
+        String token = jwtService.generateToken("testuser");
+
+        cache.getOrVerify(token, countingVerifier);
+        cache.getOrVerify(token, countingVerifier);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+}